@@ -0,0 +1,2921 @@
+/* medium.c: generated benchmark input */
+#include <stdio.h>
+#include <string.h>
+
+typedef struct record {
+    int key;
+    char name[32];
+    struct record *next;
+} RECORD;
+
+static int weights[] = {3, 1, 4, 1, 5, 9, 2, 6};
+static RECORD *head = 0;
+
+/* Function 0 combines the key with the weights. */
+int combine0(RECORD *r, int count)
+{
+    int i, total = 0;
+    char *label = "combine0";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+#define LIMIT0 0
+
+/* Function 1 combines the key with the weights. */
+int combine1(RECORD *r, int count)
+{
+    int i, total = 1;
+    char *label = "combine1";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 2 combines the key with the weights. */
+int combine2(RECORD *r, int count)
+{
+    int i, total = 2;
+    char *label = "combine2";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 3 combines the key with the weights. */
+int combine3(RECORD *r, int count)
+{
+    int i, total = 3;
+    char *label = "combine3";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 4 combines the key with the weights. */
+int combine4(RECORD *r, int count)
+{
+    int i, total = 4;
+    char *label = "combine4";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 5 combines the key with the weights. */
+int combine5(RECORD *r, int count)
+{
+    int i, total = 5;
+    char *label = "combine5";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 6 combines the key with the weights. */
+int combine6(RECORD *r, int count)
+{
+    int i, total = 6;
+    char *label = "combine6";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 7 combines the key with the weights. */
+int combine7(RECORD *r, int count)
+{
+    int i, total = 7;
+    char *label = "combine7";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 8 combines the key with the weights. */
+int combine8(RECORD *r, int count)
+{
+    int i, total = 8;
+    char *label = "combine8";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 9 combines the key with the weights. */
+int combine9(RECORD *r, int count)
+{
+    int i, total = 9;
+    char *label = "combine9";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+#define LIMIT9 90
+
+/* Function 10 combines the key with the weights. */
+int combine10(RECORD *r, int count)
+{
+    int i, total = 10;
+    char *label = "combine10";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 11 combines the key with the weights. */
+int combine11(RECORD *r, int count)
+{
+    int i, total = 11;
+    char *label = "combine11";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 12 combines the key with the weights. */
+int combine12(RECORD *r, int count)
+{
+    int i, total = 12;
+    char *label = "combine12";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 13 combines the key with the weights. */
+int combine13(RECORD *r, int count)
+{
+    int i, total = 13;
+    char *label = "combine13";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 14 combines the key with the weights. */
+int combine14(RECORD *r, int count)
+{
+    int i, total = 14;
+    char *label = "combine14";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 15 combines the key with the weights. */
+int combine15(RECORD *r, int count)
+{
+    int i, total = 15;
+    char *label = "combine15";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 16 combines the key with the weights. */
+int combine16(RECORD *r, int count)
+{
+    int i, total = 16;
+    char *label = "combine16";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 17 combines the key with the weights. */
+int combine17(RECORD *r, int count)
+{
+    int i, total = 17;
+    char *label = "combine17";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 18 combines the key with the weights. */
+int combine18(RECORD *r, int count)
+{
+    int i, total = 18;
+    char *label = "combine18";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+#define LIMIT18 180
+
+/* Function 19 combines the key with the weights. */
+int combine19(RECORD *r, int count)
+{
+    int i, total = 19;
+    char *label = "combine19";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 20 combines the key with the weights. */
+int combine20(RECORD *r, int count)
+{
+    int i, total = 20;
+    char *label = "combine20";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 21 combines the key with the weights. */
+int combine21(RECORD *r, int count)
+{
+    int i, total = 21;
+    char *label = "combine21";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 22 combines the key with the weights. */
+int combine22(RECORD *r, int count)
+{
+    int i, total = 22;
+    char *label = "combine22";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 23 combines the key with the weights. */
+int combine23(RECORD *r, int count)
+{
+    int i, total = 23;
+    char *label = "combine23";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 24 combines the key with the weights. */
+int combine24(RECORD *r, int count)
+{
+    int i, total = 24;
+    char *label = "combine24";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 25 combines the key with the weights. */
+int combine25(RECORD *r, int count)
+{
+    int i, total = 25;
+    char *label = "combine25";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 26 combines the key with the weights. */
+int combine26(RECORD *r, int count)
+{
+    int i, total = 26;
+    char *label = "combine26";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 27 combines the key with the weights. */
+int combine27(RECORD *r, int count)
+{
+    int i, total = 27;
+    char *label = "combine27";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+#define LIMIT27 270
+
+/* Function 28 combines the key with the weights. */
+int combine28(RECORD *r, int count)
+{
+    int i, total = 28;
+    char *label = "combine28";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 29 combines the key with the weights. */
+int combine29(RECORD *r, int count)
+{
+    int i, total = 29;
+    char *label = "combine29";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 30 combines the key with the weights. */
+int combine30(RECORD *r, int count)
+{
+    int i, total = 30;
+    char *label = "combine30";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 31 combines the key with the weights. */
+int combine31(RECORD *r, int count)
+{
+    int i, total = 31;
+    char *label = "combine31";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 32 combines the key with the weights. */
+int combine32(RECORD *r, int count)
+{
+    int i, total = 32;
+    char *label = "combine32";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 33 combines the key with the weights. */
+int combine33(RECORD *r, int count)
+{
+    int i, total = 33;
+    char *label = "combine33";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 34 combines the key with the weights. */
+int combine34(RECORD *r, int count)
+{
+    int i, total = 34;
+    char *label = "combine34";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 35 combines the key with the weights. */
+int combine35(RECORD *r, int count)
+{
+    int i, total = 35;
+    char *label = "combine35";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 36 combines the key with the weights. */
+int combine36(RECORD *r, int count)
+{
+    int i, total = 36;
+    char *label = "combine36";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+#define LIMIT36 360
+
+/* Function 37 combines the key with the weights. */
+int combine37(RECORD *r, int count)
+{
+    int i, total = 37;
+    char *label = "combine37";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 38 combines the key with the weights. */
+int combine38(RECORD *r, int count)
+{
+    int i, total = 38;
+    char *label = "combine38";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 39 combines the key with the weights. */
+int combine39(RECORD *r, int count)
+{
+    int i, total = 39;
+    char *label = "combine39";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 40 combines the key with the weights. */
+int combine40(RECORD *r, int count)
+{
+    int i, total = 40;
+    char *label = "combine40";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 41 combines the key with the weights. */
+int combine41(RECORD *r, int count)
+{
+    int i, total = 41;
+    char *label = "combine41";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 42 combines the key with the weights. */
+int combine42(RECORD *r, int count)
+{
+    int i, total = 42;
+    char *label = "combine42";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 43 combines the key with the weights. */
+int combine43(RECORD *r, int count)
+{
+    int i, total = 43;
+    char *label = "combine43";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 44 combines the key with the weights. */
+int combine44(RECORD *r, int count)
+{
+    int i, total = 44;
+    char *label = "combine44";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 45 combines the key with the weights. */
+int combine45(RECORD *r, int count)
+{
+    int i, total = 45;
+    char *label = "combine45";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+#define LIMIT45 450
+
+/* Function 46 combines the key with the weights. */
+int combine46(RECORD *r, int count)
+{
+    int i, total = 46;
+    char *label = "combine46";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 47 combines the key with the weights. */
+int combine47(RECORD *r, int count)
+{
+    int i, total = 47;
+    char *label = "combine47";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 48 combines the key with the weights. */
+int combine48(RECORD *r, int count)
+{
+    int i, total = 48;
+    char *label = "combine48";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 49 combines the key with the weights. */
+int combine49(RECORD *r, int count)
+{
+    int i, total = 49;
+    char *label = "combine49";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 50 combines the key with the weights. */
+int combine50(RECORD *r, int count)
+{
+    int i, total = 50;
+    char *label = "combine50";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 51 combines the key with the weights. */
+int combine51(RECORD *r, int count)
+{
+    int i, total = 51;
+    char *label = "combine51";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 52 combines the key with the weights. */
+int combine52(RECORD *r, int count)
+{
+    int i, total = 52;
+    char *label = "combine52";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 53 combines the key with the weights. */
+int combine53(RECORD *r, int count)
+{
+    int i, total = 53;
+    char *label = "combine53";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 54 combines the key with the weights. */
+int combine54(RECORD *r, int count)
+{
+    int i, total = 54;
+    char *label = "combine54";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+#define LIMIT54 540
+
+/* Function 55 combines the key with the weights. */
+int combine55(RECORD *r, int count)
+{
+    int i, total = 55;
+    char *label = "combine55";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 56 combines the key with the weights. */
+int combine56(RECORD *r, int count)
+{
+    int i, total = 56;
+    char *label = "combine56";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 57 combines the key with the weights. */
+int combine57(RECORD *r, int count)
+{
+    int i, total = 57;
+    char *label = "combine57";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 58 combines the key with the weights. */
+int combine58(RECORD *r, int count)
+{
+    int i, total = 58;
+    char *label = "combine58";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 59 combines the key with the weights. */
+int combine59(RECORD *r, int count)
+{
+    int i, total = 59;
+    char *label = "combine59";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 60 combines the key with the weights. */
+int combine60(RECORD *r, int count)
+{
+    int i, total = 60;
+    char *label = "combine60";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 61 combines the key with the weights. */
+int combine61(RECORD *r, int count)
+{
+    int i, total = 61;
+    char *label = "combine61";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 62 combines the key with the weights. */
+int combine62(RECORD *r, int count)
+{
+    int i, total = 62;
+    char *label = "combine62";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 63 combines the key with the weights. */
+int combine63(RECORD *r, int count)
+{
+    int i, total = 63;
+    char *label = "combine63";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+#define LIMIT63 630
+
+/* Function 64 combines the key with the weights. */
+int combine64(RECORD *r, int count)
+{
+    int i, total = 64;
+    char *label = "combine64";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 65 combines the key with the weights. */
+int combine65(RECORD *r, int count)
+{
+    int i, total = 65;
+    char *label = "combine65";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 66 combines the key with the weights. */
+int combine66(RECORD *r, int count)
+{
+    int i, total = 66;
+    char *label = "combine66";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 67 combines the key with the weights. */
+int combine67(RECORD *r, int count)
+{
+    int i, total = 67;
+    char *label = "combine67";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 68 combines the key with the weights. */
+int combine68(RECORD *r, int count)
+{
+    int i, total = 68;
+    char *label = "combine68";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 69 combines the key with the weights. */
+int combine69(RECORD *r, int count)
+{
+    int i, total = 69;
+    char *label = "combine69";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 70 combines the key with the weights. */
+int combine70(RECORD *r, int count)
+{
+    int i, total = 70;
+    char *label = "combine70";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 71 combines the key with the weights. */
+int combine71(RECORD *r, int count)
+{
+    int i, total = 71;
+    char *label = "combine71";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 72 combines the key with the weights. */
+int combine72(RECORD *r, int count)
+{
+    int i, total = 72;
+    char *label = "combine72";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+#define LIMIT72 720
+
+/* Function 73 combines the key with the weights. */
+int combine73(RECORD *r, int count)
+{
+    int i, total = 73;
+    char *label = "combine73";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 74 combines the key with the weights. */
+int combine74(RECORD *r, int count)
+{
+    int i, total = 74;
+    char *label = "combine74";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 75 combines the key with the weights. */
+int combine75(RECORD *r, int count)
+{
+    int i, total = 75;
+    char *label = "combine75";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 76 combines the key with the weights. */
+int combine76(RECORD *r, int count)
+{
+    int i, total = 76;
+    char *label = "combine76";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 77 combines the key with the weights. */
+int combine77(RECORD *r, int count)
+{
+    int i, total = 77;
+    char *label = "combine77";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 78 combines the key with the weights. */
+int combine78(RECORD *r, int count)
+{
+    int i, total = 78;
+    char *label = "combine78";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 79 combines the key with the weights. */
+int combine79(RECORD *r, int count)
+{
+    int i, total = 79;
+    char *label = "combine79";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 80 combines the key with the weights. */
+int combine80(RECORD *r, int count)
+{
+    int i, total = 80;
+    char *label = "combine80";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 81 combines the key with the weights. */
+int combine81(RECORD *r, int count)
+{
+    int i, total = 81;
+    char *label = "combine81";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+#define LIMIT81 810
+
+/* Function 82 combines the key with the weights. */
+int combine82(RECORD *r, int count)
+{
+    int i, total = 82;
+    char *label = "combine82";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 83 combines the key with the weights. */
+int combine83(RECORD *r, int count)
+{
+    int i, total = 83;
+    char *label = "combine83";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 84 combines the key with the weights. */
+int combine84(RECORD *r, int count)
+{
+    int i, total = 84;
+    char *label = "combine84";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 85 combines the key with the weights. */
+int combine85(RECORD *r, int count)
+{
+    int i, total = 85;
+    char *label = "combine85";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 86 combines the key with the weights. */
+int combine86(RECORD *r, int count)
+{
+    int i, total = 86;
+    char *label = "combine86";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 87 combines the key with the weights. */
+int combine87(RECORD *r, int count)
+{
+    int i, total = 87;
+    char *label = "combine87";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 88 combines the key with the weights. */
+int combine88(RECORD *r, int count)
+{
+    int i, total = 88;
+    char *label = "combine88";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 89 combines the key with the weights. */
+int combine89(RECORD *r, int count)
+{
+    int i, total = 89;
+    char *label = "combine89";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 90 combines the key with the weights. */
+int combine90(RECORD *r, int count)
+{
+    int i, total = 90;
+    char *label = "combine90";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+#define LIMIT90 900
+
+/* Function 91 combines the key with the weights. */
+int combine91(RECORD *r, int count)
+{
+    int i, total = 91;
+    char *label = "combine91";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 92 combines the key with the weights. */
+int combine92(RECORD *r, int count)
+{
+    int i, total = 92;
+    char *label = "combine92";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 93 combines the key with the weights. */
+int combine93(RECORD *r, int count)
+{
+    int i, total = 93;
+    char *label = "combine93";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 94 combines the key with the weights. */
+int combine94(RECORD *r, int count)
+{
+    int i, total = 94;
+    char *label = "combine94";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 95 combines the key with the weights. */
+int combine95(RECORD *r, int count)
+{
+    int i, total = 95;
+    char *label = "combine95";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 96 combines the key with the weights. */
+int combine96(RECORD *r, int count)
+{
+    int i, total = 96;
+    char *label = "combine96";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 97 combines the key with the weights. */
+int combine97(RECORD *r, int count)
+{
+    int i, total = 97;
+    char *label = "combine97";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 98 combines the key with the weights. */
+int combine98(RECORD *r, int count)
+{
+    int i, total = 98;
+    char *label = "combine98";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 99 combines the key with the weights. */
+int combine99(RECORD *r, int count)
+{
+    int i, total = 99;
+    char *label = "combine99";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+#define LIMIT99 990
+
+/* Function 100 combines the key with the weights. */
+int combine100(RECORD *r, int count)
+{
+    int i, total = 100;
+    char *label = "combine100";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 101 combines the key with the weights. */
+int combine101(RECORD *r, int count)
+{
+    int i, total = 101;
+    char *label = "combine101";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 102 combines the key with the weights. */
+int combine102(RECORD *r, int count)
+{
+    int i, total = 102;
+    char *label = "combine102";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 103 combines the key with the weights. */
+int combine103(RECORD *r, int count)
+{
+    int i, total = 103;
+    char *label = "combine103";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 104 combines the key with the weights. */
+int combine104(RECORD *r, int count)
+{
+    int i, total = 104;
+    char *label = "combine104";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 105 combines the key with the weights. */
+int combine105(RECORD *r, int count)
+{
+    int i, total = 105;
+    char *label = "combine105";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 106 combines the key with the weights. */
+int combine106(RECORD *r, int count)
+{
+    int i, total = 106;
+    char *label = "combine106";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 107 combines the key with the weights. */
+int combine107(RECORD *r, int count)
+{
+    int i, total = 107;
+    char *label = "combine107";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 108 combines the key with the weights. */
+int combine108(RECORD *r, int count)
+{
+    int i, total = 108;
+    char *label = "combine108";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+#define LIMIT108 1080
+
+/* Function 109 combines the key with the weights. */
+int combine109(RECORD *r, int count)
+{
+    int i, total = 109;
+    char *label = "combine109";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 110 combines the key with the weights. */
+int combine110(RECORD *r, int count)
+{
+    int i, total = 110;
+    char *label = "combine110";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 111 combines the key with the weights. */
+int combine111(RECORD *r, int count)
+{
+    int i, total = 111;
+    char *label = "combine111";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 112 combines the key with the weights. */
+int combine112(RECORD *r, int count)
+{
+    int i, total = 112;
+    char *label = "combine112";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 113 combines the key with the weights. */
+int combine113(RECORD *r, int count)
+{
+    int i, total = 113;
+    char *label = "combine113";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 114 combines the key with the weights. */
+int combine114(RECORD *r, int count)
+{
+    int i, total = 114;
+    char *label = "combine114";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 115 combines the key with the weights. */
+int combine115(RECORD *r, int count)
+{
+    int i, total = 115;
+    char *label = "combine115";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 116 combines the key with the weights. */
+int combine116(RECORD *r, int count)
+{
+    int i, total = 116;
+    char *label = "combine116";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 117 combines the key with the weights. */
+int combine117(RECORD *r, int count)
+{
+    int i, total = 117;
+    char *label = "combine117";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (r->key * weights[i % 8] + 0);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+#define LIMIT117 1170
+
+/* Function 118 combines the key with the weights. */
+int combine118(RECORD *r, int count)
+{
+    int i, total = 118;
+    char *label = "combine118";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += (((((r->key * weights[i % 8] + 0) * weights[i % 8] + 1) * weights[i % 8] + 2) * weights[i % 8] + 3) * weights[i % 8] + 4);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    case 2:
+        total = total << 3 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
+/* Function 119 combines the key with the weights. */
+int combine119(RECORD *r, int count)
+{
+    int i, total = 119;
+    char *label = "combine119";
+    RECORD *p;
+
+    for (i = 0; i < count; i++) total += ((r->key * weights[i % 8] + 0) * weights[i % 8] + 1);
+    p = r;
+    while (p != 0 && p->key != total) p = p->next;
+    switch (total & 3) {
+    case 0:
+        total = total << 1 | strlen(label);
+        break;
+    case 1:
+        total = total << 2 | strlen(label);
+        break;
+    default:
+        total--;
+    }
+    if (total > 1000) printf("%%s: %%d\n", label, total);
+    return total;
+}
+
@@ -0,0 +1,83 @@
+#include <stdio.h>
+#include <stdlib.h>
+#define MAX 100
+/* A block comment
+   spanning lines */
+typedef struct node {
+    int value;
+    struct node *next;
+} NODE;
+
+static int table[] = { 1, 2, 3, 4 };
+char *names[] = {"alpha", "beta\"q", "gamma"};
+int counter = 0;
+extern int other(int a, char *b);
+
+int add(int a, int b)
+{
+    return a + b;
+}
+
+int process(NODE *list, int count)
+{
+    int i, total = 0;
+    char c = '\'';
+    char d = '\\';
+    NODE *p;
+
+    for (i = 0; i < count; i++) total += i;
+    p = list;
+    while (p != 0) p = p->next;
+    total <<= 2; total >>= 1; total |= 4; total &= ~3;
+    if (total >= MAX && total <= MAX * 2 || !total) total = -total;
+    counter++; --counter;
+    switch (total % 4) {
+    case 0:
+        total = add(total, 1);
+        break;
+    case 1: {
+        int z = 3;
+        total = (total + (z * (2 + (3 - 1)))) / 2;
+    }
+        break;
+    default:
+        total = total ? total : 1;
+    }
+    {
+        int inner;
+        inner = sizeof(NODE);
+        printf("total %d inner %d and a rather long string literal to force wrapping\n", total, inner);
+    }
+again:
+    if (total > 1000) goto done;
+    total = total * 3 + process(list, count - 1) + add(total, add(1, add(2, add(3, add(4, 5))))) + 12345;
+    goto again;
+done:
+    return total;
+}
+
+int old_style(a, b)
+int a;
+char *b;
+{
+    unsigned long x = 0;
+    register short y;
+    x = a + *b;
+    y = (short) x;
+    return y;
+}
+
+void empty(void)
+{
+}
+
+int main(int argc, char **argv)
+{
+    NODE n;
+    n.value = 1;
+    n.next = 0;
+    #ifdef DEBUG
+    printf("debug\n");
+    #endif
+    return process(&n, argc) != 0;
+}
@@ -0,0 +1,573 @@
+// The BatchFormatter class formats every C file named by a list of
+//   file names, directories and glob patterns. The files are formatted
+//   concurrently on a work-stealing pool. Each task constructs its own
+//   Output, Lexer and Format objects, so no formatting state is shared
+//   between threads. Problems found in a file are reported as failures
+//   with their line numbers, and a file that exceeds the step or time
+//   budget is abandoned, leaving its output untouched, while the rest of
+//   the batch carries on.
+//
+//   Outputs are written through an UpdateStream, so those that are
+//   already current are not rewritten and the others are replaced
+//   atomically. In check mode nothing is written: each file's output is
+//   compared with its existing _.c file as it is formatted, stopping at
+//   the first line that differs. With a FormatCache, files whose
+//   formatted output is cached are not formatted again.
+//
+//   Files of at least SPLIT_SIZE characters may be split at function
+//   boundaries and formatted by a ParallelFormatter on the same pool. In
+//   pipelined mode each file is formatted by a PipelinedFormatter, which
+//   scans, formats and writes it on three threads. Otherwise, with an
+//   I/O limit, files are read and written on their own threads, virtual
+//   threads where the Java version has them, while the pool only
+//   formats, so slow storage and formatting overlap. With token files,
+//   each file's tokens are kept in a TokenFile beside it, and a file
+//   whose token file is current is formatted from its tokens without
+//   being scanned again. With FormatMetrics, what each file read and
+//   wrote and the time it took are counted.
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.stream.*;
+
+public class BatchFormatter {
+	private static final String SOURCE_SUFFIX = ".c",
+			OUTPUT_SUFFIX = "_.c", GLOB_CHARACTERS = "*?[{";
+	private static final long SPLIT_SIZE = 4 << 20,
+			MAXIMUM_CACHED_SIZE = 64 << 20;
+	private final int parallelism;
+	private final boolean split;
+	private ForkJoinPool pool;
+	private FormatCache cache;
+	private FormatMetrics metrics;
+	private boolean check, pipelined, tokenFiles;
+	private int ioLimit;
+	private long stepLimit = Lexer.DEFAULT_STEP_LIMIT,
+			timeLimit = Lexer.DEFAULT_TIME_LIMIT;
+	private final AtomicInteger filesFormatted = new AtomicInteger(),
+			filesWritten = new AtomicInteger(), cacheHits = new AtomicInteger(),
+			filesDiffering = new AtomicInteger();
+	private final AtomicLong bytesFormatted = new AtomicLong();
+	private final List<String> failures =
+			Collections.synchronizedList(new ArrayList<String>());
+	private final Map<Path, String> checked = new ConcurrentSkipListMap<>();
+
+	// The constructor sets the number of worker threads.
+
+	public BatchFormatter(int parallelism) {
+		this(parallelism, false);
+	}
+
+	// The constructor sets the number of worker threads and whether large
+	//   files are split into pieces formatted in parallel.
+
+	public BatchFormatter(int parallelism, boolean split) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException(
+					"parallelism must be at least 1: " + parallelism);
+		this.parallelism = parallelism;
+		this.split = split;
+	}
+
+	// setCache sets the cache of formatted output to use, or null for
+	//   none.
+
+	public void setCache(FormatCache cache) {
+		this.cache = cache;
+	}
+
+	// setMetrics sets the metrics that each file is counted in, or null
+	//   for none.
+
+	public void setMetrics(FormatMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	// setCheck sets whether files are only checked against their existing
+	//   output instead of being formatted into it.
+
+	public void setCheck(boolean check) {
+		this.check = check;
+	}
+
+	// setPipelined sets whether files that are not split are formatted by
+	//   a PipelinedFormatter.
+
+	public void setPipelined(boolean pipelined) {
+		this.pipelined = pipelined;
+	}
+
+	// setTokenFiles sets whether files that are neither split nor
+	//   pipelined are formatted from their token files, which are written
+	//   when they are missing or out of date. Check mode writes nothing,
+	//   so it does not use token files.
+
+	public void setTokenFiles(boolean tokenFiles) {
+		this.tokenFiles = tokenFiles;
+	}
+
+	// setIoLimit sets the number of files that may be read, formatted or
+	//   written at once when reading and writing are done apart from the
+	//   pool, or zero to read and write files on the pool threads that
+	//   format them. It applies when neither checking, caching nor
+	//   using token files.
+
+	public void setIoLimit(int ioLimit) {
+		this.ioLimit = ioLimit;
+	}
+
+	// setBudget sets the number of tokens and the number of milliseconds,
+	//   zero for no limit, that formatting each file may take.
+
+	public void setBudget(long stepLimit, long timeLimit) {
+		this.stepLimit = stepLimit;
+		this.timeLimit = timeLimit;
+	}
+
+	// run discovers the files named by the patterns, formats them and
+	//   prints a summary to the report stream. It returns true if every
+	//   file was formatted successfully, or in check mode if every file's
+	//   output is already current.
+
+	public boolean run(List<String> patterns, PrintStream report)
+			throws IOException {
+		long start = System.nanoTime();
+		List<Path> files = discover(patterns);
+		pool = new ForkJoinPool(parallelism);
+
+		try {
+			if (ioLimit > 0 && !check && cache == null && !tokenFiles &&
+					!pipelined)
+				formatOverlapped(files);
+			else
+				pool.invoke(new FormatFiles(files, 0, files.size()));
+		} finally {
+			pool.shutdown();
+		}
+		long elapsed = System.nanoTime() - start;
+		for (Map.Entry<Path, String> result : checked.entrySet())
+			report.println(result.getKey() + ": " + result.getValue());
+		for (String failure : failures)
+			report.println(failure);
+		report.println(summary(elapsed));
+		return failures.isEmpty() && filesDiffering.get() == 0;
+	}
+
+	// discover expands the patterns into a sorted list of source files.
+	//   Directories are searched recursively. Files ending in _.c are
+	//   formatter output and are skipped unless named explicitly.
+
+	public static List<Path> discover(List<String> patterns)
+			throws IOException {
+		Set<Path> files = new TreeSet<>();
+
+		for (String pattern : patterns) {
+			if (!isGlob(pattern)) {
+				Path path = Paths.get(pattern);
+				if (Files.isDirectory(path))
+					files.addAll(walk(path, null));
+				else if (!pattern.endsWith(SOURCE_SUFFIX))
+					throw new IOException("not a C source file: " + pattern);
+				else if (Files.isRegularFile(path))
+					files.add(path.normalize());
+				else
+					throw new FileNotFoundException(pattern);
+			} else {
+				Path base = globBase(pattern);
+				if (Files.isDirectory(base))
+					files.addAll(walk(base, FileSystems.getDefault()
+							.getPathMatcher("glob:" + pattern)));
+			}
+		}
+		return new ArrayList<>(files);
+	}
+
+	// walk returns the source files below a directory, optionally
+	//   filtered by a path matcher.
+
+	private static List<Path> walk(Path directory, PathMatcher matcher)
+			throws IOException {
+		try (Stream<Path> paths = Files.walk(directory)) {
+			return paths.map(Path::normalize)
+					.filter(path -> isSource(path) &&
+							(matcher == null || matcher.matches(path)))
+					.collect(Collectors.toList());
+		}
+	}
+
+	// isSource returns true for regular files ending in .c that are not
+	//   themselves formatter output.
+
+	private static boolean isSource(Path path) {
+		String name = path.getFileName().toString();
+		return name.endsWith(SOURCE_SUFFIX) &&
+				!name.endsWith(OUTPUT_SUFFIX) && Files.isRegularFile(path);
+	}
+
+	// isGlob returns true if the pattern contains glob metacharacters.
+
+	private static boolean isGlob(String pattern) {
+		for (int i = 0; i < pattern.length(); i++)
+			if (GLOB_CHARACTERS.indexOf(pattern.charAt(i)) >= 0)
+				return true;
+		return false;
+	}
+
+	// globBase returns the directory formed by the leading components of
+	//   the pattern that contain no glob metacharacters.
+
+	private static Path globBase(String pattern) {
+		Path base = Paths.get(pattern.replaceAll("[*?\\[{].*$", "x"))
+				.getParent();
+		if (base == null)
+			return Paths.get(pattern.startsWith("/") ? "/" : ".");
+		return base;
+	}
+
+	// formatFile formats a single file with its own Output, Lexer and
+	//   Format objects. Failures are recorded rather than thrown so the
+	//   rest of the batch continues.
+
+	private void formatFile(Path path) {
+		String source = path.toString();
+		String fileName = source.substring(0,
+				source.length() - SOURCE_SUFFIX.length());
+		long started = System.nanoTime(), size = 0;
+		boolean failed = true;
+
+		try {
+			size = Files.size(path);
+			if (check)
+				checkFile(path, fileName, size);
+			else if (cache != null && size <= MAXIMUM_CACHED_SIZE)
+				formatCached(path, fileName);
+			else
+				try (UpdateStream target = new UpdateStream(
+						Paths.get(fileName + OUTPUT_SUFFIX))) {
+					Writer writer = new BufferedWriter(
+							new OutputStreamWriter(target), 64 * 1024);
+					report(source, format(path, fileName, size, writer));
+					writer.flush();
+					commit(target);
+				}
+			filesFormatted.incrementAndGet();
+			bytesFormatted.addAndGet(size);
+			failed = false;
+		} catch (FormatException exception) {
+			failures.add(source + ":" + exception.getDiagnostic());
+		} catch (IOException | RuntimeException exception) {
+			failures.add(source + ": " + exception);
+		} finally {
+			if (metrics != null)
+				metrics.fileDone(size, System.nanoTime() - started, failed);
+		}
+	}
+
+	// formatOverlapped formats the files with their reading and writing
+	//   done on the I/O executor and their formatting on the pool, so
+	//   that a file can be formatted while others are read and written.
+	//   At most ioLimit files are between the start of their reading and
+	//   the end of their writing at once, which bounds both the I/O in
+	//   flight and the memory holding files.
+
+	private void formatOverlapped(List<Path> files) {
+		ExecutorService io = ioExecutor();
+		Semaphore inFlight = new Semaphore(ioLimit);
+
+		try {
+			for (Path path : files) {
+				inFlight.acquireUninterruptibly();
+				FileJob job = new FileJob(path);
+				CompletableFuture.runAsync(job::read, io)
+						.thenRunAsync(job::format, pool)
+						.thenRunAsync(job::write, io)
+						.whenComplete((result, exception) -> {
+							job.done(exception);
+							inFlight.release();
+						});
+			}
+			inFlight.acquireUninterruptibly(ioLimit);
+		} finally {
+			io.shutdown();
+		}
+	}
+
+	// ioExecutor returns an executor that runs each task on a new
+	//   virtual thread, on Java versions that have them, or else on a
+	//   cached pool of daemon threads. The number of tasks at once is
+	//   bounded by the caller.
+
+	static ExecutorService ioExecutor() {
+		try {
+			return (ExecutorService) Executors.class
+					.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException exception) {
+			return Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "format-io");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	// format formats a file into a writer, splitting it if it is large,
+	//   and returns the problems found in it.
+
+	private List<Diagnostic> format(Path path, String fileName, long size,
+			Writer writer) throws IOException {
+		if (isSplit(size))
+			return formatSplit(readText(path), fileName, writer);
+		if (tokenFiles && !pipelined && !check)
+			return TokenFile.format(path, fileName, writer, stepLimit,
+					timeLimit, metrics);
+		try (Reader input = new FileReader(path.toFile())) {
+			if (pipelined)
+				return PipelinedFormatter.format(input, fileName, writer,
+						stepLimit, timeLimit, metrics);
+			return CFormatter.format(input, fileName, writer, stepLimit,
+					timeLimit, metrics);
+		}
+	}
+
+	// report records the problems found in a file as one failure.
+
+	private void report(String source, List<Diagnostic> diagnostics) {
+		if (diagnostics.isEmpty())
+			return;
+		StringBuilder failure = new StringBuilder();
+		for (Diagnostic diagnostic : diagnostics) {
+			if (failure.length() > 0)
+				failure.append(System.lineSeparator());
+			failure.append(source).append(':').append(diagnostic);
+		}
+		failures.add(failure.toString());
+	}
+
+	// formatCached writes the cached output for a file, formatting the
+	//   file and caching the output first if it is not cached. Output
+	//   with problems is not cached, so they are reported every time.
+	//   The input and output are held in memory, so files larger than
+	//   MAXIMUM_CACHED_SIZE are streamed instead and never cached.
+
+	private void formatCached(Path path, String fileName) throws IOException {
+		byte[] input = Files.readAllBytes(path);
+		String key = cache.key(input, fileName);
+		byte[] output = cache.get(key);
+
+		if (output != null)
+			cacheHits.incrementAndGet();
+		else {
+			StringWriter result = new StringWriter(input.length * 2);
+			String text = new String(input);
+			List<Diagnostic> diagnostics;
+			if (isSplit(input.length))
+				diagnostics = formatSplit(text.toCharArray(), fileName, result);
+			else
+				diagnostics = CFormatter.format(new StringReader(text),
+						fileName, result, stepLimit, timeLimit, metrics);
+			output = result.toString().getBytes();
+			if (diagnostics.isEmpty())
+				cache.put(key, output);
+			else
+				report(path.toString(), diagnostics);
+		}
+		try (UpdateStream target = new UpdateStream(
+				Paths.get(fileName + OUTPUT_SUFFIX))) {
+			target.write(output);
+			commit(target);
+		}
+	}
+
+	// commit replaces the output file if the output written differs.
+
+	private void commit(UpdateStream target) throws IOException {
+		if (target.commit())
+			filesWritten.incrementAndGet();
+	}
+
+	// checkFile formats a file into a CheckStream that compares the
+	//   output with the existing output file, or compares the cached
+	//   output if there is one, and records whether the file passed.
+
+	private void checkFile(Path path, String fileName, long size)
+			throws IOException {
+		File target = new File(fileName + OUTPUT_SUFFIX);
+		String result = "ok";
+
+		if (!target.isFile())
+			result = "not formatted";
+		else
+			try (CheckStream expected =
+						 new CheckStream(new FileInputStream(target))) {
+				byte[] output = cache == null ? null :
+						cache.get(cache.key(Files.readAllBytes(path), fileName));
+				if (output != null) {
+					cacheHits.incrementAndGet();
+					expected.write(output);
+				} else {
+					Writer writer = new OutputStreamWriter(expected);
+					report(path.toString(), format(path, fileName, size, writer));
+					writer.flush();
+				}
+				expected.finish();
+			} catch (CheckStream.Difference difference) {
+				result = difference.getMessage();
+			}
+		if (!result.equals("ok"))
+			filesDiffering.incrementAndGet();
+		checked.put(path, result);
+	}
+
+	// isSplit returns true if a file of the given size is to be split and
+	//   formatted by a ParallelFormatter.
+
+	private boolean isSplit(long size) {
+		return split && size >= SPLIT_SIZE && parallelism > 1;
+	}
+
+	// formatSplit formats a large file with a ParallelFormatter.
+
+	private List<Diagnostic> formatSplit(char[] text, String fileName,
+			Writer writer) throws IOException {
+		ParallelFormatter formatter = new ParallelFormatter(pool);
+		formatter.setBudget(stepLimit, timeLimit);
+		formatter.setMetrics(metrics);
+		return formatter.format(text, text.length, fileName, writer);
+	}
+
+	// readText reads a file as FileReader would.
+
+	private static char[] readText(Path path) throws IOException {
+		CharArrayWriter text = new CharArrayWriter((int) Files.size(path));
+
+		try (Reader reader = new FileReader(path.toFile())) {
+			char[] block = new char[64 * 1024];
+			int count;
+			while ((count = reader.read(block)) > 0)
+				text.write(block, 0, count);
+		}
+		return text.toCharArray();
+	}
+
+	// summary returns the one line report of files, bytes and time.
+
+	private String summary(long elapsedNanos) {
+		double seconds = elapsedNanos / 1e9;
+		long bytes = bytesFormatted.get();
+		return String.format("%d files, %d bytes in %.3f s (%.2f MB/s," +
+						" %d threads, %d failed, %d %s%s)", filesFormatted.get(),
+				bytes, seconds, seconds > 0 ? bytes / 1e6 / seconds : 0.0,
+				parallelism, failures.size(), check ? filesDiffering.get() :
+						filesWritten.get(), check ? "differ" : "written",
+				cache == null ? "" : ", " + cacheHits.get() + " cached");
+	}
+
+	// A FileJob is one file formatted by formatOverlapped: read into
+	//   memory, formatted into memory, then written, each stage on the
+	//   executor given to it.
+
+	private final class FileJob {
+		private final Path path;
+		private final String source, fileName;
+		private final long started = System.nanoTime();
+		private long size;
+		private char[] text;
+		private byte[] output;
+
+		FileJob(Path path) {
+			this.path = path;
+			source = path.toString();
+			fileName = source.substring(0,
+					source.length() - SOURCE_SUFFIX.length());
+		}
+
+		void read() {
+			try {
+				size = Files.size(path);
+				text = readText(path);
+			} catch (IOException exception) {
+				throw new UncheckedIOException(exception);
+			}
+		}
+
+		void format() {
+			ByteArrayOutputStream bytes =
+					new ByteArrayOutputStream(text.length + text.length / 2);
+			Writer writer = new OutputStreamWriter(bytes);
+			try {
+				List<Diagnostic> diagnostics = isSplit(text.length) ?
+						formatSplit(text, fileName, writer) :
+						CFormatter.format(new CharArrayReader(text), fileName,
+								writer, stepLimit, timeLimit, metrics);
+				writer.flush();
+				report(source, diagnostics);
+			} catch (IOException exception) {
+				throw new UncheckedIOException(exception);
+			}
+			text = null;
+			output = bytes.toByteArray();
+		}
+
+		void write() {
+			try (UpdateStream target = new UpdateStream(
+					Paths.get(fileName + OUTPUT_SUFFIX))) {
+				target.write(output);
+				commit(target);
+			} catch (IOException exception) {
+				throw new UncheckedIOException(exception);
+			}
+			output = null;
+		}
+
+		// done records the outcome of the job, given the exception that
+		//   stopped it or null.
+
+		void done(Throwable exception) {
+			if (exception instanceof CompletionException &&
+					exception.getCause() != null)
+				exception = exception.getCause();
+			if (exception instanceof UncheckedIOException)
+				exception = exception.getCause();
+			if (exception == null) {
+				filesFormatted.incrementAndGet();
+				bytesFormatted.addAndGet(size);
+			} else if (exception instanceof FormatException)
+				failures.add(source + ":" +
+						((FormatException) exception).getDiagnostic());
+			else
+				failures.add(source + ": " + exception);
+			if (metrics != null)
+				metrics.fileDone(size, System.nanoTime() - started,
+						exception != null);
+		}
+	}
+
+	// FormatFiles splits a range of files in half until a single file
+	//   remains, letting idle workers steal the unstarted halves.
+
+	private class FormatFiles extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final List<Path> files;
+		private final int low, high;
+
+		FormatFiles(List<Path> files, int low, int high) {
+			this.files = files;
+			this.low = low;
+			this.high = high;
+		}
+
+		@Override
+		protected void compute() {
+			if (high - low == 1)
+				formatFile(files.get(low));
+			else if (high - low > 1) {
+				int middle = (low + high) >>> 1;
+				invokeAll(new FormatFiles(files, low, middle),
+						new FormatFiles(files, middle, high));
+			}
+		}
+	}
+}
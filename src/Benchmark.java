@@ -0,0 +1,384 @@
+// The Benchmark class measures the throughput of the lexer, the whole
+//   formatter and the output line assembly over the C files in a corpus
+//   directory. The large input is the medium corpus file repeated until
+//   it is several megabytes long. Each benchmark is warmed up and then
+//   timed over several iterations, and the results are reported in
+//   MB/s and tokens/s with the bytes allocated per operation and the
+//   allocation rate, so runs can be compared from commit to commit.
+//   With -g, the formatter is also run once over generated programs of
+//   each given size, reporting throughput, allocation and peak heap, so
+//   that scaling with input size can be charted.
+
+import java.io.*;
+import java.lang.management.*;
+import java.nio.file.*;
+import java.util.*;
+
+public class Benchmark {
+	private static final int WARMUP_ITERATIONS = 5, ITERATIONS = 10,
+			LARGE_REPEAT = 64;
+	private static final long ITERATION_NANOS = 200_000_000L;
+	private static final long SEED = 330;
+	private static final String CORPUS = "corpus";
+	private static final com.sun.management.ThreadMXBean threads =
+			(com.sun.management.ThreadMXBean)
+					ManagementFactory.getThreadMXBean();
+
+	// A benchmark operation processes one input once and returns the
+	//   number of tokens it handled.
+
+	private interface Operation {
+		long run() throws IOException;
+	}
+
+	// main runs the benchmarks named on the command line, or all of them,
+	//   over the corpus. The corpus directory may be given with -c, and
+	//   a comma separated list of generated input sizes with -g.
+
+	public static void main(String[] args) throws IOException {
+		String corpus = CORPUS;
+		Set<String> selected = new HashSet<>();
+		List<String> sizes = new ArrayList<>();
+
+		for (int i = 0; i < args.length; i++)
+			if (args[i].equals("-c") && i + 1 < args.length)
+				corpus = args[++i];
+			else if (args[i].equals("-g") && i + 1 < args.length)
+				sizes.addAll(Arrays.asList(args[++i].split(",")));
+			else
+				selected.add(args[i]);
+		if (!sizes.isEmpty()) {
+			System.out.println(String.format("%-8s %-8s %10s %12s %14s %12s",
+					"bench", "size", "MB/s", "tokens/s", "alloc B",
+					"peak heap MB"));
+			for (String size : sizes)
+				scale(size);
+			if (selected.isEmpty())
+				return;
+		}
+		System.out.println(String.format("%-8s %-8s %10s %12s %14s %12s %6s",
+				"bench", "input", "MB/s", "tokens/s", "alloc B/op",
+				"alloc MB/s", "gc"));
+		for (Map.Entry<String, char[]> input : inputs(corpus).entrySet())
+			run(selected, input.getKey(), input.getValue());
+	}
+
+	// scale generates a program of the given size into a temporary file
+	//   and formats it once, reporting throughput, the bytes allocated and
+	//   the peak heap use during the run.
+
+	private static void scale(String size) throws IOException {
+		Path file = Files.createTempFile("benchmark", ".c");
+
+		try {
+			try (Writer writer = Files.newBufferedWriter(file)) {
+				new CorpusGenerator(SEED, 4, 60, 0.1, 0.05)
+						.generate(writer, CorpusGenerator.parseSize(size));
+			}
+			long length = Files.size(file);
+			long thread = Thread.currentThread().getId();
+			TokenCounter output = new TokenCounter();
+
+			System.gc();
+			for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+				pool.resetPeakUsage();
+			long allocated = threads.getThreadAllocatedBytes(thread);
+			long start = System.nanoTime();
+			try (Reader reader = Files.newBufferedReader(file)) {
+				new Format(new Lexer(reader, output), output).file();
+			}
+			double seconds = (System.nanoTime() - start) / 1e9;
+			allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+			long peak = 0;
+			for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+				if (pool.getType() == MemoryType.HEAP)
+					peak += pool.getPeakUsage().getUsed();
+			System.out.println(String.format(
+					"%-8s %-8s %10.1f %12.0f %14d %12.1f", "scale", size,
+					length / 1e6 / seconds, output.tokens / seconds, allocated,
+					peak / 1e6));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	// inputs loads the small and medium corpus files and builds the
+	//   large input from the medium one.
+
+	private static Map<String, char[]> inputs(String corpus)
+			throws IOException {
+		Map<String, char[]> inputs = new LinkedHashMap<>();
+		String medium = read(Paths.get(corpus, "medium.c"));
+		StringBuilder large = new StringBuilder();
+
+		inputs.put("small", read(Paths.get(corpus, "small.c")).toCharArray());
+		inputs.put("medium", medium.toCharArray());
+		for (int i = 0; i < LARGE_REPEAT; i++)
+			large.append(medium);
+		inputs.put("large", large.toString().toCharArray());
+		return inputs;
+	}
+
+	// run times each selected benchmark on one input.
+
+	private static void run(Set<String> selected, String name,
+			final char[] text) throws IOException {
+		final long tokens = lex(text);
+		final Replay replay = new Replay(text);
+
+		if (selected.isEmpty() || selected.contains("lexer"))
+			report("lexer", name, text.length, measure(() -> lex(text)));
+		if (selected.isEmpty() || selected.contains("format"))
+			report("format", name, text.length, measure(() -> {
+				Output output = new Output(new NullWriter(), name);
+				new Format(new Lexer(new CharArrayReader(text), output),
+						output).file();
+				output.flush();
+				return tokens;
+			}));
+		if (selected.isEmpty() || selected.contains("output"))
+			report("output", name, text.length, measure(replay::run));
+	}
+
+	// lex scans the text and returns the number of tokens. The lexer
+	//   writes to an Output that discards the tokens.
+
+	private static long lex(char[] text) {
+		Lexer lexer = new Lexer(new CharArrayReader(text), new NullOutput());
+		long tokens = 0;
+
+		while (lexer.getNextToken() != Token.END_OF_FILE)
+			tokens++;
+		return tokens;
+	}
+
+	// measure warms up the operation and then times it. It returns the
+	//   operations, tokens, nanoseconds, bytes allocated and garbage
+	//   collections over the timed iterations.
+
+	private static long[] measure(Operation operation) throws IOException {
+		long thread = Thread.currentThread().getId();
+		long[] totals = new long[5];
+
+		for (int i = 0; i < WARMUP_ITERATIONS + ITERATIONS; i++) {
+			long allocated = threads.getThreadAllocatedBytes(thread);
+			long collections = collections();
+			long start = System.nanoTime(), elapsed, operations = 0,
+					tokens = 0;
+			do {
+				tokens += operation.run();
+				operations++;
+				elapsed = System.nanoTime() - start;
+			} while (elapsed < ITERATION_NANOS);
+			if (i >= WARMUP_ITERATIONS) {
+				totals[0] += operations;
+				totals[1] += tokens;
+				totals[2] += elapsed;
+				totals[3] += threads.getThreadAllocatedBytes(thread) -
+						allocated;
+				totals[4] += collections() - collections;
+			}
+		}
+		return totals;
+	}
+
+	// collections returns the number of garbage collections so far.
+
+	private static long collections() {
+		long count = 0;
+
+		for (GarbageCollectorMXBean collector :
+				ManagementFactory.getGarbageCollectorMXBeans())
+			count += Math.max(collector.getCollectionCount(), 0);
+		return count;
+	}
+
+	// report prints one line of results.
+
+	private static void report(String bench, String input, long length,
+			long[] totals) {
+		double seconds = totals[2] / 1e9;
+		System.out.println(String.format(
+				"%-8s %-8s %10.1f %12.0f %14.0f %12.1f %6d", bench, input,
+				totals[0] * length / 1e6 / seconds, totals[1] / seconds,
+				(double) totals[3] / totals[0], totals[3] / 1e6 / seconds,
+				totals[4]));
+	}
+
+	private static String read(Path path) throws IOException {
+		return new String(Files.readAllBytes(path));
+	}
+
+	// Replay records the calls the lexer and formatter make on Output for
+	//   one input, so that line assembly can be timed on its own.
+
+	private static class Replay extends Output {
+		private static final int TOKEN = 0, DIRECTIVE = 1, END_LINE = 2,
+				FORCE_PAGE = 3, SKIP_LINE = 4, INDENT = 5, UNINDENT = 6,
+				END_PAGE = 7;
+		private final StringBuilder lexemes = new StringBuilder();
+		private int[] calls = new int[1024];
+		private int callCount;
+		private char[] text;
+		private long tokens;
+
+		Replay(char[] input) {
+			super(new NullWriter(), "benchmark");
+			Format format = new Format(
+					new Lexer(new CharArrayReader(input), this), this);
+			format.file();
+			text = lexemes.toString().toCharArray();
+		}
+
+		// run replays the recorded calls on a new Output and returns the
+		//   number of tokens output.
+
+		long run() {
+			Output output = new Output(new NullWriter(), "benchmark");
+			int offset = 0;
+
+			for (int i = 0; i < callCount; ) {
+				switch (calls[i++]) {
+					case TOKEN:
+						output.outputToken(text, offset, calls[i], calls[i + 1]);
+						offset += calls[i];
+						i += 2;
+						break;
+					case DIRECTIVE:
+						output.outputDirective(text, offset, calls[i]);
+						offset += calls[i++];
+						break;
+					case END_LINE:
+						output.endLine(false);
+						break;
+					case FORCE_PAGE:
+						output.endLine(true);
+						break;
+					case SKIP_LINE:
+						output.skipLine();
+						break;
+					case INDENT:
+						output.indent();
+						break;
+					case UNINDENT:
+						output.unindent();
+						break;
+					case END_PAGE:
+						output.endPage();
+						break;
+				}
+			}
+			return tokens;
+		}
+
+		private void record(int... call) {
+			if (callCount + call.length > calls.length)
+				calls = Arrays.copyOf(calls, calls.length * 2);
+			System.arraycopy(call, 0, calls, callCount, call.length);
+			callCount += call.length;
+		}
+
+		@Override
+		public void outputToken(char[] token, int start, int length,
+				int spacing) {
+			lexemes.append(token, start, length);
+			record(TOKEN, length, spacing);
+			tokens++;
+		}
+
+		@Override
+		public void outputDirective(char[] directive, int start,
+				int length) {
+			lexemes.append(directive, start, length);
+			record(DIRECTIVE, length);
+		}
+
+		@Override
+		public void endLine(boolean forceNewPage) {
+			record(forceNewPage ? FORCE_PAGE : END_LINE);
+		}
+
+		@Override
+		public void skipLine() {
+			record(SKIP_LINE);
+		}
+
+		@Override
+		public void indent() {
+			record(INDENT);
+		}
+
+		@Override
+		public void unindent() {
+			record(UNINDENT);
+		}
+
+		@Override
+		public void endPage() {
+			record(END_PAGE);
+		}
+	}
+
+	// TokenCounter counts the tokens written to a null sink.
+
+	private static class TokenCounter extends Output {
+		private long tokens;
+
+		TokenCounter() {
+			super(new NullWriter(), "benchmark");
+		}
+
+		@Override
+		public void outputToken(char[] token, int start, int length,
+				int spacing) {
+			tokens++;
+			super.outputToken(token, start, length, spacing);
+		}
+	}
+
+	// NullOutput discards the tokens and lines given to it.
+
+	private static class NullOutput extends Output {
+		NullOutput() {
+			super(new NullWriter(), "benchmark");
+		}
+
+		@Override
+		public void outputToken(char[] token, int start, int length,
+				int spacing) {
+		}
+
+		@Override
+		public void outputDirective(char[] directive, int start,
+				int length) {
+		}
+
+		@Override
+		public void endLine(boolean forceNewPage) {
+		}
+	}
+
+	// NullWriter discards everything written to it.
+
+	private static class NullWriter extends Writer {
+		@Override
+		public void write(char[] characters, int offset, int length) {
+		}
+
+		@Override
+		public void write(String string, int offset, int length) {
+		}
+
+		@Override
+		public void write(int character) {
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
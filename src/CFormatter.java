@@ -0,0 +1,134 @@
+// The CFormatter class is the in-memory interface to the formatter. It
+//   formats source text from a character sequence or reader into an
+//   appendable or writer without touching the file system. Every call
+//   constructs its own Output, Lexer and Format objects, so the methods
+//   may be called from many threads at once. Problems in the source are
+//   returned as diagnostics by the methods that read a reader.
+
+import java.io.*;
+import java.nio.CharBuffer;
+import java.util.List;
+
+public final class CFormatter {
+
+	private CFormatter() {
+	}
+
+	// format returns the formatted source. The name appears in the page
+	//   headings in place of the input file name.
+
+	public static String format(CharSequence source, String name) {
+		StringWriter result = new StringWriter(source.length() * 2);
+		try {
+			format(new StringReader(source.toString()), name, result);
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+		return result.toString();
+	}
+
+	// format appends the formatted source to the destination.
+
+	public static void format(CharSequence source, String name,
+			Appendable destination) throws IOException {
+		format(new StringReader(source.toString()), name,
+				writerFor(destination));
+	}
+
+	// format reads the source from a reader and writes the formatted
+	//   text to a writer. Neither is closed; the writer is flushed. It
+	//   returns the problems found in the source.
+
+	public static List<Diagnostic> format(Reader source, String name,
+			Writer destination) throws IOException {
+		return format(source, name, destination, Lexer.DEFAULT_STEP_LIMIT,
+				Lexer.DEFAULT_TIME_LIMIT);
+	}
+
+	// format formats the source within a budget of tokens read and
+	//   milliseconds taken, zero for no time limit. A source that exceeds
+	//   it throws a FormatException.
+
+	public static List<Diagnostic> format(Reader source, String name,
+			Writer destination, long stepLimit, long timeLimit)
+			throws IOException {
+		return format(source, name, destination, stepLimit, timeLimit, null);
+	}
+
+	// format formats the source within a budget, adding what it reads,
+	//   writes and the time it takes to the metrics, if they are not null.
+
+	public static List<Diagnostic> format(Reader source, String name,
+			Writer destination, long stepLimit, long timeLimit,
+			FormatMetrics metrics) throws IOException {
+		Output output = new Output(destination, name);
+
+		return format(new Lexer(source, output), output, stepLimit,
+				timeLimit, metrics);
+	}
+
+	// format formats what the lexer reads into the output, which is
+	//   flushed, within a budget and counting in the metrics as above.
+
+	static List<Diagnostic> format(Lexer lexer, Output output,
+			long stepLimit, long timeLimit, FormatMetrics metrics)
+			throws IOException {
+		FormatEvents.FileEvent event = FormatEvents.fileStarted();
+		String outcome = "failed";
+		FormatMetrics.Counters counters =
+				metrics == null ? null : metrics.counters();
+		Format format = new Format(lexer, output);
+
+		lexer.setStepLimit(stepLimit);
+		lexer.setTimeLimit(timeLimit);
+		lexer.setCounters(counters);
+		output.setCounters(counters);
+		try {
+			format.file();
+			output.flush();
+			outcome = "formatted";
+		} catch (FormatException exception) {
+			outcome = "abandoned";
+			throw exception;
+		} finally {
+			if (counters != null) {
+				counters.finish();
+				metrics.add(counters);
+			}
+			FormatEvents.fileEnded(event, output.name(),
+					lexer.getTokenOffset(), lexer.getDiagnostics().size(),
+					outcome);
+		}
+		return lexer.getDiagnostics();
+	}
+
+	// writerFor adapts an appendable to a writer.
+
+	private static Writer writerFor(final Appendable destination) {
+		if (destination instanceof Writer)
+			return (Writer) destination;
+		return new Writer() {
+			@Override
+			public void write(char[] characters, int offset, int length)
+					throws IOException {
+				destination.append(CharBuffer.wrap(characters, offset, length));
+			}
+
+			@Override
+			public void write(String string, int offset, int length)
+					throws IOException {
+				destination.append(string, offset, offset + length);
+			}
+
+			@Override
+			public void flush() throws IOException {
+				if (destination instanceof Flushable)
+					((Flushable) destination).flush();
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+	}
+}
@@ -0,0 +1,113 @@
+// The CheckStream class is an output stream that compares the bytes
+//   written to it with those of an input stream, such as an existing
+//   output file, and stores nothing. Writing formatted text to it through
+//   an OutputStreamWriter compares exactly the bytes that writing the
+//   file would produce. The first byte that differs throws a Difference,
+//   an unchecked exception so that it passes through the writers of
+//   Output and stops the formatter at the line where the output would
+//   change.
+
+import java.io.*;
+
+public class CheckStream extends OutputStream {
+	private final InputStream expected;
+	private final byte[] block = new byte[64 * 1024];
+	private int position, count;
+	private long line = 1;
+
+	// The constructor sets the stream of the expected bytes.
+
+	public CheckStream(InputStream expected) {
+		this.expected = expected;
+	}
+
+	@Override
+	public void write(byte[] bytes, int offset, int length)
+			throws IOException {
+		while (length > 0) {
+			if (position == count && !fill())
+				throw difference();
+			int run = Math.min(length, count - position);
+			for (int i = 0; i < run; i++)
+				if (bytes[offset + i] != block[position + i]) {
+					position += i;
+					throw difference();
+				}
+			position += run;
+			offset += run;
+			length -= run;
+		}
+	}
+
+	@Override
+	public void write(int value) throws IOException {
+		compare((byte) value);
+	}
+
+	// finish throws a Difference if the expected bytes go on beyond the
+	//   bytes written.
+
+	public void finish() throws IOException {
+		if (position < count || fill())
+			throw difference();
+	}
+
+	@Override
+	public void close() throws IOException {
+		expected.close();
+	}
+
+	// compare matches one byte against the next expected one.
+
+	private void compare(byte value) throws IOException {
+		if (position == count && !fill())
+			throw difference();
+		if (block[position] != value)
+			throw difference();
+		position++;
+	}
+
+	// difference returns the Difference at the current position. Lines
+	//   are only counted when a block has been passed or at a difference,
+	//   so the comparison itself is a plain loop.
+
+	private Difference difference() {
+		return new Difference(line + lines(position));
+	}
+
+	private long lines(int end) {
+		long lines = 0;
+
+		for (int i = 0; i < end; i++)
+			if (block[i] == '\n')
+				lines++;
+		return lines;
+	}
+
+	// fill reads the next block of the expected bytes, returning false at
+	//   their end.
+
+	private boolean fill() throws IOException {
+		line += lines(count);
+		position = 0;
+		count = Math.max(expected.read(block), 0);
+		return count > 0;
+	}
+
+	// A Difference reports the first line at which the bytes written
+	//   differ from the expected bytes.
+
+	public static class Difference extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+		private final long line;
+
+		Difference(long line) {
+			super("differs at line " + line, null, false, false);
+			this.line = line;
+		}
+
+		public long line() {
+			return line;
+		}
+	}
+}
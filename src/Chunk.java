@@ -0,0 +1,332 @@
+// A Chunk formats the text from a token at its start offset until a
+//   unit following a function body starts at or beyond its stop
+//   offset, or the text ends. The output starts at page 1 and is
+//   written without margins, and the end of each page heading and the
+//   start and relative indentation of each line are kept, so that the
+//   pages can be renumbered and the margins added when the chunk is
+//   written after the chunks before it. The chunks of a file are
+//   formatted in parallel by ParallelFormatter and kept from one run to
+//   the next by IncrementalFormatter.
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+final class Chunk extends RecursiveTask<Chunk> {
+	private static final long serialVersionUID = 1L;
+	private char[] text;
+	private final int length;
+	private final String name;
+	private final long start, stop;
+	private volatile boolean cancelled;
+	private final ChunkWriter writer = new ChunkWriter();
+	private int[] pageEnds = new int[8];
+	private int[] lineStarts = new int[1024], lineIndentations =
+			new int[1024];
+	private int pageCount, lineCount, indentation;
+	private long end;
+	private long stepLimit = Lexer.DEFAULT_STEP_LIMIT, deadline;
+	private boolean timeLimited;
+	private List<Diagnostic> diagnostics = Collections.emptyList();
+	private long unreported, unreportedLine;
+	private FormatMetrics metrics;
+	private FormatMetrics.Counters counters;
+
+	Chunk(char[] text, int length, String name, long start, long stop) {
+		this.text = text;
+		this.length = length;
+		this.name = name;
+		this.start = start;
+		this.stop = stop;
+	}
+
+	// budget sets the step limit of the chunk's lexer and, if the chunk
+	//   is time limited, the System.nanoTime value at which it gives up.
+
+	Chunk budget(long stepLimit, long deadline, boolean timeLimited) {
+		this.stepLimit = stepLimit;
+		this.deadline = deadline;
+		this.timeLimited = timeLimited;
+		return this;
+	}
+
+	// metrics sets the metrics that the chunk's counters are made by, or
+	//   null for none.
+
+	Chunk metrics(FormatMetrics metrics) {
+		this.metrics = metrics;
+		return this;
+	}
+
+	@Override
+	protected Chunk compute() {
+		counters = metrics == null ? null : metrics.counters();
+		ChunkOutput output = new ChunkOutput();
+		Lexer lexer = new Lexer(new CharArrayReader(text, (int) start,
+				length - (int) start), output, start > 0);
+		Format format = new Format(lexer, output);
+
+		lexer.setStepLimit(stepLimit);
+		if (timeLimited)
+			lexer.setDeadline(deadline);
+		lexer.setCounters(counters);
+		output.setCounters(counters);
+		try {
+			if (format.file(() -> start + lexer.getTokenOffset() >= stop))
+				end = start + lexer.getTokenOffset();
+			else
+				end = length;
+		} catch (FormatException exception) {
+			throw new FormatException(
+					exception.getDiagnostic().moved(linesBefore()));
+		} finally {
+			if (counters != null)
+				counters.finish();
+		}
+		output.close();
+		if (counters != null)
+			counters.consumed(end - start, lines((int) start, (int) end));
+		if (!lexer.getRecorded().isEmpty()) {
+			long lines = linesBefore();
+			diagnostics = new ArrayList<>();
+			for (Diagnostic diagnostic : lexer.getRecorded())
+				diagnostics.add(diagnostic.moved(lines));
+			unreported = lexer.getUnreported();
+			unreportedLine = lexer.getUnreportedLine() + lines;
+		}
+		text = null;
+		return this;
+	}
+
+	// linesBefore returns the number of lines in the text before the
+	//   chunk, which the lines of its diagnostics are relative to.
+
+	private long linesBefore() {
+		return lines(0, (int) start);
+	}
+
+	private long lines(int from, int to) {
+		long lines = 0;
+
+		for (int i = from; i < to; i++)
+			if (text[i] == '\n')
+				lines++;
+		return lines;
+	}
+
+	// counters returns what formatting the chunk read, wrote and took,
+	//   or null without metrics. The characters and lines read are those
+	//   of the chunk, without what its lexer read ahead. Only the chunks
+	//   that are written are added to the metrics.
+
+	FormatMetrics.Counters counters() {
+		return counters;
+	}
+
+	// diagnostics returns the problems recorded in the chunk, with the
+	//   lines numbered from the start of the text. Like a Lexer's, the
+	//   list holds at most the first Lexer.MAXIMUM_DIAGNOSTICS; the others
+	//   are only counted.
+
+	List<Diagnostic> diagnostics() {
+		return diagnostics;
+	}
+
+	// unreported returns the number of problems found in the chunk but
+	//   not recorded, and unreportedLine the line of the last of them.
+
+	long unreported() {
+		return unreported;
+	}
+
+	long unreportedLine() {
+		return unreportedLine;
+	}
+
+	// end returns the offset at which the chunk stopped: the start of
+	//   the next unit, or the length of the text.
+
+	long end() {
+		return end;
+	}
+
+	// pages returns the number of pages the chunk started.
+
+	int pages() {
+		return pageCount;
+	}
+
+	// indentation returns the net change of indentation in the chunk.
+
+	int indentation() {
+		return indentation;
+	}
+
+	// abandon stops the chunk if it is running and discards it.
+
+	void abandon() {
+		cancelled = true;
+		cancel(false);
+	}
+
+	// trim releases the unused parts of the chunk's arrays, for chunks
+	//   that are kept once formatted.
+
+	void trim() {
+		writer.characters = Arrays.copyOf(writer.characters, writer.count);
+		pageEnds = Arrays.copyOf(pageEnds, pageCount);
+		lineStarts = Arrays.copyOf(lineStarts, lineCount);
+		lineIndentations = Arrays.copyOf(lineIndentations, lineCount);
+	}
+
+	// writeTo writes the chunk's output, adding the number of pages
+	//   before it to each page number and the indentation before it
+	//   to each margin.
+
+	void writeTo(Writer destination, int pagesBefore,
+			int indentationBefore) throws IOException {
+		int separator = System.lineSeparator().length(), from = 0,
+				page = 0, leftMargin = Math.max(Output.LEFT_MARGIN, 0);
+		char[] spaces = new char[0];
+
+		for (int line = 0; line <= lineCount; line++) {
+			int mark = line < lineCount ? lineStarts[line] : writer.count;
+			for (; page < pageCount && pageEnds[page] <= mark; page++) {
+				int numberEnd = pageEnds[page] - separator;
+				int numberStart = numberEnd -
+						Integer.toString(page + 1).length();
+				destination.write(writer.characters, from,
+						numberStart - from);
+				destination.write(Integer.toString(pagesBefore + page + 1));
+				from = numberEnd;
+			}
+			destination.write(writer.characters, from, mark - from);
+			if (line == lineCount)
+				break;
+			from = mark + leftMargin;
+			int margin = Math.max(Output.LEFT_MARGIN + indentationBefore +
+					lineIndentations[line], 0);
+			if (margin > spaces.length) {
+				spaces = new char[Math.max(margin, spaces.length * 2)];
+				Arrays.fill(spaces, ' ');
+			}
+			if (margin > 0)
+				destination.write(spaces, 0, margin);
+		}
+	}
+
+	// ChunkOutput records where each page heading ends and where each
+	//   line starts, and stops the chunk once it has been cancelled.
+	//   It keeps the indentation itself, so that Output writes only the
+	//   left margin, which is replaced when the chunk is written.
+
+	private final class ChunkOutput extends Output {
+		ChunkOutput() {
+			super(writer, name);
+		}
+
+		@Override
+		public void outputToken(char[] token, int start, int length,
+				int spacing) {
+			if (cancelled)
+				throw new CancellationException();
+			super.outputToken(token, start, length, spacing);
+		}
+
+		@Override
+		public void endLine(boolean forceNewPage) {
+			if (cancelled)
+				throw new CancellationException();
+			super.endLine(forceNewPage);
+		}
+
+		@Override
+		public void newPage() {
+			super.newPage();
+			if (pageCount == pageEnds.length)
+				pageEnds = Arrays.copyOf(pageEnds, pageCount * 2);
+			pageEnds[pageCount++] = writer.count;
+		}
+
+		@Override
+		public void outputLine(String line) {
+			int pages = pageCount, mark = writer.count;
+			super.outputLine(line);
+			markLine(pages, mark);
+		}
+
+		@Override
+		public void outputLine(char[] line, int start, int length) {
+			int pages = pageCount, mark = writer.count;
+			super.outputLine(line, start, length);
+			markLine(pages, mark);
+		}
+
+		// markLine records the start of the line just written, after
+		//   the page heading if one was written before it.
+
+		private void markLine(int pages, int mark) {
+			if (pageCount > pages)
+				mark = pageEnds[pageCount - 1];
+			if (lineCount == lineStarts.length) {
+				lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+				lineIndentations = Arrays.copyOf(lineIndentations,
+						lineCount * 2);
+			}
+			lineStarts[lineCount] = mark;
+			lineIndentations[lineCount++] = indentation;
+		}
+
+		@Override
+		public void indent() {
+			indentation += Output.INDENT_INCREMENT;
+		}
+
+		@Override
+		public void unindent() {
+			indentation -= Output.INDENT_INCREMENT;
+		}
+	}
+
+	// ChunkWriter collects a chunk's output in a growing array. Unlike
+	//   CharArrayWriter it is not synchronized and exposes its array.
+
+	private static final class ChunkWriter extends Writer {
+		private char[] characters = new char[8192];
+		private int count;
+
+		@Override
+		public void write(char[] source, int offset, int length) {
+			ensureCapacity(length);
+			System.arraycopy(source, offset, characters, count, length);
+			count += length;
+		}
+
+		@Override
+		public void write(String source, int offset, int length) {
+			ensureCapacity(length);
+			source.getChars(offset, offset + length, characters, count);
+			count += length;
+		}
+
+		@Override
+		public void write(int character) {
+			ensureCapacity(1);
+			characters[count++] = (char) character;
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+
+		private void ensureCapacity(int length) {
+			if (count + length > characters.length)
+				characters = Arrays.copyOf(characters,
+						Math.max(count + length, characters.length * 2));
+		}
+	}
+}
@@ -0,0 +1,362 @@
+// The CorpusGenerator class writes synthetic C programs of a chosen
+//   size and shape for benchmarks and stress tests. The programs are
+//   built from the constructs Format handles: function bodies, compound
+//   statements, switch statements, declarations and nested expressions,
+//   with comments and compiler directives between them. The same seed
+//   and settings always produce the same program. The program is made
+//   one top-level unit at a time, so inputs far larger than memory can
+//   be written to a file or read as a stream.
+
+import java.io.*;
+import java.util.Random;
+
+public class CorpusGenerator {
+	private static final String USAGE = "usage: java CorpusGenerator" +
+			" [-seed n] [-depth n] [-line n] [-comments p] [-directives p]" +
+			" size[K|M|G] file";
+	private static final String[] VARIABLES = {"a", "b", "i", "j", "total",
+			"count", "index", "value"};
+	private static final String[] BINARY_OPERATORS = {"+", "-", "*", "/",
+			"%", "<<", ">>", "&", "|", "&&", "||", "<", ">", "<=", ">=", "==",
+			"!="};
+	private static final String[] ASSIGNMENT_OPERATORS = {"=", "+=", "-=",
+			"*=", "|=", "&=", "<<=", ">>="};
+	private final Random random;
+	private final int maximumDepth, lineLength;
+	private final double commentDensity, directiveDensity;
+	private final StringBuilder unit = new StringBuilder();
+	private int functions, labels;
+
+	// The constructor sets the shape of the programs. maximumDepth bounds
+	//   the nesting of blocks, switch statements and parentheses, and
+	//   lineLength the length of an expression. The densities are the
+	//   chances of a comment before each statement and unit, and of a
+	//   directive between units.
+
+	public CorpusGenerator(long seed, int maximumDepth, int lineLength,
+			double commentDensity, double directiveDensity) {
+		if (maximumDepth < 1 || lineLength < 10)
+			throw new IllegalArgumentException(
+					"depth must be at least 1 and line length at least 10");
+		random = new Random(seed);
+		this.maximumDepth = maximumDepth;
+		this.lineLength = lineLength;
+		this.commentDensity = commentDensity;
+		this.directiveDensity = directiveDensity;
+	}
+
+	// main writes a generated program to a file.
+
+	public static void main(String[] args) throws IOException {
+		long seed = 330;
+		int depth = 4, line = 60;
+		double comments = 0.1, directives = 0.05;
+		int i = 0;
+
+		try {
+			for (; i < args.length - 2; i += 2) {
+				String value = args[i + 1];
+				if (args[i].equals("-seed"))
+					seed = Long.parseLong(value);
+				else if (args[i].equals("-depth"))
+					depth = Integer.parseInt(value);
+				else if (args[i].equals("-line"))
+					line = Integer.parseInt(value);
+				else if (args[i].equals("-comments"))
+					comments = Double.parseDouble(value);
+				else if (args[i].equals("-directives"))
+					directives = Double.parseDouble(value);
+				else
+					break;
+			}
+			if (i != args.length - 2)
+				throw new IllegalArgumentException(USAGE);
+			long size = parseSize(args[i]);
+			CorpusGenerator generator = new CorpusGenerator(seed, depth, line,
+					comments, directives);
+			try (Writer writer = new BufferedWriter(
+					new FileWriter(args[i + 1]))) {
+				generator.generate(writer, size);
+			}
+		} catch (IllegalArgumentException exception) {
+			System.err.println(USAGE);
+			System.exit(2);
+		}
+	}
+
+	// parseSize converts a size such as 64K, 16M or 2G to characters.
+
+	public static long parseSize(String size) {
+		long multiplier = 1;
+		char unit = Character.toUpperCase(size.charAt(size.length() - 1));
+
+		if (unit == 'K')
+			multiplier = 1L << 10;
+		else if (unit == 'M')
+			multiplier = 1L << 20;
+		else if (unit == 'G')
+			multiplier = 1L << 30;
+		if (multiplier > 1)
+			size = size.substring(0, size.length() - 1);
+		return Long.parseLong(size) * multiplier;
+	}
+
+	// generate writes whole top-level units until at least size
+	//   characters have been written, and returns the number written.
+
+	public long generate(Writer writer, long size) throws IOException {
+		long written = 0;
+
+		while (written < size) {
+			nextUnit();
+			writer.append(unit);
+			written += unit.length();
+		}
+		return written;
+	}
+
+	// reader returns a reader of a program of at least size characters.
+	//   The program is generated as it is read.
+
+	public Reader reader(final long size) {
+		return new Reader() {
+			private long generated;
+			private int offset;
+
+			@Override
+			public int read(char[] characters, int start, int length) {
+				if (offset == unit.length()) {
+					if (generated >= size)
+						return -1;
+					nextUnit();
+					generated += unit.length();
+					offset = 0;
+				}
+				int count = Math.min(length, unit.length() - offset);
+				unit.getChars(offset, offset + count, characters, start);
+				offset += count;
+				return count;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+	}
+
+	// nextUnit replaces the unit buffer with the next top-level unit: a
+	//   function, usually, or a global declaration, with an optional
+	//   directive and comment in front.
+
+	private void nextUnit() {
+		unit.setLength(0);
+		if (random.nextDouble() < directiveDensity)
+			unit.append("#define LIMIT").append(functions).append(' ')
+					.append(random.nextInt(1000)).append('\n');
+		comment("");
+		if (random.nextInt(4) == 0)
+			globalDeclaration();
+		else
+			function();
+		unit.append('\n');
+	}
+
+	// globalDeclaration adds a global variable, array or function
+	//   prototype. Structures are left out: Format indents after the
+	//   closing brace of each one without undoing it, so a program with
+	//   many of them would grow wider with every one and its output would
+	//   grow faster than its input.
+
+	private void globalDeclaration() {
+		switch (random.nextInt(3)) {
+			case 0:
+				unit.append("static int global").append(functions)
+						.append(" = ").append(random.nextInt(100)).append(";\n");
+				break;
+			case 1:
+				unit.append("int table").append(functions).append("[] = {");
+				for (int i = random.nextInt(8); i >= 0; i--)
+					unit.append(random.nextInt(100)).append(i > 0 ? ", " : "");
+				unit.append("};\n");
+				break;
+			default:
+				unit.append("extern int function").append(functions)
+						.append("(int a, char *name);\n");
+		}
+		functions++;
+	}
+
+	// function adds a function definition with a body of declarations
+	//   and statements.
+
+	private void function() {
+		unit.append("int function").append(functions++)
+				.append("(int a, int b)\n{\n");
+		declarations(1);
+		statements(1, 1 + random.nextInt(6));
+		indent(1);
+		unit.append("return ");
+		expression(0, lineLength);
+		unit.append(";\n}\n");
+	}
+
+	// declarations adds the declarations at the start of a block.
+
+	private void declarations(int depth) {
+		for (int i = random.nextInt(4); i >= 0; i--) {
+			indent(depth);
+			switch (random.nextInt(3)) {
+				case 0:
+					unit.append("int ").append(VARIABLES[random.nextInt(
+							VARIABLES.length)]).append(" = ");
+					expression(0, lineLength);
+					break;
+				case 1:
+					unit.append("char *name = \"text ")
+							.append(random.nextInt(1000)).append("\\n\"");
+					break;
+				default:
+					unit.append("int values[").append(1 + random.nextInt(16))
+							.append(']');
+			}
+			unit.append(";\n");
+		}
+	}
+
+	// statements adds count statements at the given block depth.
+
+	private void statements(int depth, int count) {
+		for (int i = 0; i < count; i++) {
+			comment(spaces(depth));
+			statement(depth);
+		}
+	}
+
+	// statement adds one statement: a nested block or switch statement
+	//   while the depth allows, otherwise an expression, labeled or goto
+	//   statement.
+
+	private void statement(int depth) {
+		int choice = random.nextInt(depth < maximumDepth ? 10 : 7);
+
+		indent(depth);
+		if (choice < 5) {
+			unit.append(VARIABLES[random.nextInt(VARIABLES.length)])
+					.append(' ').append(ASSIGNMENT_OPERATORS[random.nextInt(
+					ASSIGNMENT_OPERATORS.length)]).append(' ');
+			expression(0, lineLength);
+			unit.append(";\n");
+		} else if (choice == 5) {
+			unit.append("if (");
+			expression(0, lineLength / 2);
+			unit.append(") count++;\n");
+		} else if (choice == 6) {
+			int label = labels++;
+			unit.append("label").append(label).append(": index--;\n");
+			indent(depth);
+			unit.append("if (index > 0) goto label").append(label)
+					.append(";\n");
+		} else if (choice < 9) {
+			unit.append("{\n");
+			declarations(depth + 1);
+			statements(depth + 1, 1 + random.nextInt(4));
+			indent(depth);
+			unit.append("}\n");
+		} else
+			switchStatement(depth);
+	}
+
+	// switchStatement adds a switch statement with cases and a default.
+
+	private void switchStatement(int depth) {
+		unit.append("switch (");
+		expression(0, lineLength / 2);
+		unit.append(") {\n");
+		for (int i = random.nextInt(4); i >= 0; i--) {
+			indent(depth);
+			unit.append("case ").append(i).append(":\n");
+			statements(depth + 1, 1 + random.nextInt(3));
+			indent(depth + 1);
+			unit.append("break;\n");
+		}
+		indent(depth);
+		unit.append("default:\n");
+		statements(depth + 1, 1);
+		indent(depth);
+		unit.append("}\n");
+	}
+
+	// expression adds an expression of roughly length characters with
+	//   parentheses nested up to the maximum depth.
+
+	private void expression(int depth, int length) {
+		int end = unit.length() + length;
+
+		operand(depth, length);
+		while (unit.length() < end) {
+			unit.append(' ').append(BINARY_OPERATORS[random.nextInt(
+					BINARY_OPERATORS.length)]).append(' ');
+			operand(depth, end - unit.length());
+		}
+	}
+
+	// operand adds a variable, constant, call, array element, structure
+	//   member, unary expression or parenthesized expression.
+
+	private void operand(int depth, int length) {
+		switch (random.nextInt(depth < maximumDepth && length > 8 ? 9 : 7)) {
+			case 0:
+			case 1:
+				unit.append(VARIABLES[random.nextInt(VARIABLES.length)]);
+				break;
+			case 2:
+				unit.append(random.nextInt(10000));
+				break;
+			case 3:
+				unit.append("values[i]");
+				break;
+			case 4:
+				unit.append("p->key");
+				break;
+			case 5:
+				unit.append(random.nextBoolean() ? "-" : "!")
+						.append(VARIABLES[random.nextInt(VARIABLES.length)]);
+				break;
+			case 6:
+				unit.append("'").append(random.nextBoolean() ? "x" : "\\n")
+						.append("'");
+				break;
+			case 7:
+				unit.append("function").append(random.nextInt(functions + 1))
+						.append('(');
+				expression(depth + 1, length / 3);
+				unit.append(", b)");
+				break;
+			default:
+				unit.append('(');
+				expression(depth + 1, length / 2);
+				unit.append(')');
+		}
+	}
+
+	// comment adds a comment, at the chosen density, that sometimes
+	//   spans lines.
+
+	private void comment(String margin) {
+		if (random.nextDouble() >= commentDensity)
+			return;
+		unit.append(margin).append("/* note ").append(random.nextInt(1000));
+		if (random.nextBoolean())
+			unit.append('\n').append(margin).append("   continued");
+		unit.append(" */\n");
+	}
+
+	private void indent(int depth) {
+		unit.append(spaces(depth));
+	}
+
+	private static String spaces(int depth) {
+		return "                                ".substring(0,
+				Math.min(4 * depth, 32));
+	}
+}
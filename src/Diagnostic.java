@@ -0,0 +1,39 @@
+// The Diagnostic class describes a problem found in the input while
+//   formatting it, such as a comment or string that is not terminated,
+//   with the line on which the problem starts. Lines are counted from
+//   1.
+
+public final class Diagnostic {
+	private final long line;
+	private final String message;
+
+	// The constructor sets the line and the description of the problem.
+
+	public Diagnostic(long line, String message) {
+		this.line = line;
+		this.message = message;
+	}
+
+	public long getLine() {
+		return line;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	// moved returns the diagnostic for input that starts the given number
+	//   of lines further into a file.
+
+	Diagnostic moved(long lines) {
+		return new Diagnostic(line + lines, message);
+	}
+
+	// toString returns the line and message in the form used by
+	//   compilers, to follow the file name and a colon.
+
+	@Override
+	public String toString() {
+		return line + ": " + message;
+	}
+}
@@ -0,0 +1,293 @@
+// The Equivalence class checks that every way of formatting a file
+//   gives the same output as formatting it serially in one piece: split
+//   and formatted in parallel by a ParallelFormatter, reformatted by an
+//   IncrementalFormatter after an edit, pipelined by a PipelinedFormatter,
+//   and formatted from a TokenFile both while recording it and while
+//   replaying it. The inputs are the C files of a corpus directory, a
+//   few malformed programs, whose problems must be reported alike, a
+//   generated program with problems throughout, more than are listed,
+//   and generated programs of the given sizes. Each input is also edited in
+//   one place, keeping its length, and the edited text is checked the
+//   same way; its token file is checked with the source's modification
+//   time restored, as cp -p or rsync -t would leave it. Last, a
+//   generated program many times larger than a small heap is streamed
+//   through the plain and the pipelined formatter in a virtual machine
+//   with that heap, to check that memory use does not grow with the
+//   input. One line is printed for each input and way, and the exit
+//   status is 1 if any output or list of problems differs or a stream
+//   runs out of memory.
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class Equivalence {
+	private static final String CORPUS = "corpus";
+	private static final String[] SIZES = {"64K", "4M"};
+	private static final long SEED = 330, NOISY_SIZE = 3 << 20;
+	private static final int NOISE_SPACING = 8192;
+	private static final String STREAM_SIZE = "64M", STREAM_HEAP = "-Xmx16m";
+	private static final String[] MALFORMED = {
+			"int f(int a)\n{\n\treturn a;\n}\nchar *s = \"open\n",
+			"int f(int a)\n{\n\treturn a; /* open\n",
+			"int f(int a)\n{\n\treturn a @ 1;\n\tif (a) { a = `b;\n",
+			"int f(int a)\n{\n\treturn 'x;\n}\n"};
+	private static int differences;
+
+	// main checks the corpus, which may be given with -c, and generated
+	//   programs of the sizes in a comma separated list given with -g.
+
+	public static void main(String[] args)
+			throws IOException, InterruptedException {
+		String corpus = CORPUS;
+		List<String> sizes = Arrays.asList(SIZES);
+
+		if (args.length == 2 && args[0].equals("-stream")) {
+			stream(args[1].equals("pipelined"));
+			return;
+		}
+		for (int i = 0; i < args.length; i++)
+			if (args[i].equals("-c") && i + 1 < args.length)
+				corpus = args[++i];
+			else if (args[i].equals("-g") && i + 1 < args.length)
+				sizes = Arrays.asList(args[++i].split(","));
+			else {
+				System.err.println("usage: java Equivalence [-c corpus]" +
+						" [-g size,...]");
+				System.exit(2);
+			}
+		ForkJoinPool pool = new ForkJoinPool(
+				Math.max(2, Runtime.getRuntime().availableProcessors()));
+		Path directory = Files.createTempDirectory("equivalence");
+
+		try {
+			try (DirectoryStream<Path> files =
+						 Files.newDirectoryStream(Paths.get(corpus), "*.c")) {
+				for (Path file : files)
+					check(pool, directory, file.getFileName().toString(),
+							new String(Files.readAllBytes(file)));
+			}
+			for (int i = 0; i < MALFORMED.length; i++)
+				check(pool, directory, "malformed-" + i + ".c", MALFORMED[i]);
+			check(pool, directory, "noisy.c", noisy(generate(NOISY_SIZE)));
+			for (String size : sizes)
+				check(pool, directory, "generated-" + size + ".c",
+						generate(CorpusGenerator.parseSize(size)));
+		} finally {
+			pool.shutdown();
+			try (DirectoryStream<Path> files =
+						 Files.newDirectoryStream(directory)) {
+				for (Path file : files)
+					Files.delete(file);
+			}
+			Files.delete(directory);
+		}
+		for (String mode : new String[] {"plain", "pipelined"})
+			checkStream(mode);
+		System.out.println(differences == 0 ? "all equivalent" :
+				differences + " differences");
+		System.exit(differences == 0 ? 0 : 1);
+	}
+
+	// check compares each way of formatting the text, and of the text
+	//   edited, with formatting it serially.
+
+	private static void check(ForkJoinPool pool, Path directory, String name,
+			String text) throws IOException {
+		String edited = edit(text);
+		Path file = directory.resolve(name);
+		IncrementalFormatter incremental = new IncrementalFormatter(name);
+		Result serial = serial(name, text),
+				editedSerial = serial(name, edited);
+
+		compare(name, "split", serial, split(pool, name, text));
+		compare(name, "pipelined", serial, pipelined(name, text));
+		compare(name, "incremental", serial,
+				new Result(incremental.format(text), null));
+		compare(name, "incremental edited", editedSerial,
+				new Result(incremental.format(edited), null));
+		compare(name, "incremental undone", serial,
+				new Result(incremental.format(text), null));
+
+		Files.write(file, text.getBytes());
+		FileTime modified = Files.getLastModifiedTime(file);
+		compare(name, "token file recorded", serial, tokens(file, name));
+		compare(name, "token file replayed", serial, tokens(file, name));
+		Files.write(file, edited.getBytes());
+		Files.setLastModifiedTime(file, modified);
+		compare(name, "token file stale", editedSerial, tokens(file, name));
+		compare(name, "token file edited", editedSerial, tokens(file, name));
+		Files.delete(TokenFile.pathFor(file));
+		Files.delete(file);
+	}
+
+	// checkStream formats a generated program of STREAM_SIZE characters
+	//   in a virtual machine limited to STREAM_HEAP, in the given mode,
+	//   and counts a difference if it fails.
+
+	private static void checkStream(String mode)
+			throws IOException, InterruptedException {
+		Process process = new ProcessBuilder(
+				Paths.get(System.getProperty("java.home"), "bin", "java")
+						.toString(), STREAM_HEAP, "-cp",
+				System.getProperty("java.class.path"),
+				Equivalence.class.getName(), "-stream", mode)
+				.redirectErrorStream(true).start();
+		ByteArrayOutputStream report = new ByteArrayOutputStream();
+		byte[] block = new byte[8192];
+		int count;
+
+		try (InputStream in = process.getInputStream()) {
+			while ((count = in.read(block)) > 0)
+				report.write(block, 0, count);
+		}
+		String outcome = process.waitFor() == 0 ? "ok" :
+				"failed: " + report.toString().trim();
+		if (!outcome.equals("ok"))
+			differences++;
+		System.out.println(String.format("%-18s %-20s %s",
+				"stream-" + STREAM_SIZE, mode + " " + STREAM_HEAP, outcome));
+	}
+
+	// stream formats a generated program of STREAM_SIZE characters read
+	//   as it is generated, discarding the output, and exits with status
+	//   1 if formatting fails.
+
+	private static void stream(boolean pipelined) throws IOException {
+		Reader source = new CorpusGenerator(SEED, 4, 60, 0.1, 0.05)
+				.reader(CorpusGenerator.parseSize(STREAM_SIZE));
+		Writer discard = new Writer() {
+			@Override
+			public void write(char[] characters, int offset, int length) {
+			}
+
+			@Override
+			public void flush() {
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		List<Diagnostic> diagnostics = pipelined ?
+				PipelinedFormatter.format(source, "stream", discard) :
+				CFormatter.format(source, "stream", discard);
+
+		if (!diagnostics.isEmpty()) {
+			System.out.println(diagnostics.get(0));
+			System.exit(1);
+		}
+	}
+
+	private static String generate(long size) throws IOException {
+		StringWriter text = new StringWriter();
+
+		new CorpusGenerator(SEED, 4, 60, 0.1, 0.05).generate(text, size);
+		return text.toString();
+	}
+
+	// noisy returns the text with a space replaced by an unexpected
+	//   character about every NOISE_SPACING characters, so that a large
+	//   program split into several chunks has more problems than are
+	//   listed.
+
+	private static String noisy(String text) {
+		char[] characters = text.toCharArray();
+
+		for (int at = NOISE_SPACING; at < characters.length;
+			 at += NOISE_SPACING) {
+			int space = text.indexOf(' ', at);
+			if (space < 0)
+				break;
+			characters[space] = '@';
+		}
+		return new String(characters);
+	}
+
+	// edit returns the text with the first semicolon after its middle
+	//   replaced by a brace, which changes its tokens but not its length.
+
+	private static String edit(String text) {
+		int at = text.indexOf(';', text.length() / 2);
+
+		if (at < 0)
+			return text;
+		return text.substring(0, at) + '{' + text.substring(at + 1);
+	}
+
+	private static Result serial(String name, String text)
+			throws IOException {
+		StringWriter output = new StringWriter();
+		List<Diagnostic> diagnostics = CFormatter.format(
+				new StringReader(text), name, output);
+		return new Result(output.toString(), diagnostics);
+	}
+
+	private static Result split(ForkJoinPool pool, String name, String text)
+			throws IOException {
+		StringWriter output = new StringWriter();
+		List<Diagnostic> diagnostics = new ParallelFormatter(pool).format(
+				text.toCharArray(), text.length(), name, output);
+		return new Result(output.toString(), diagnostics);
+	}
+
+	private static Result pipelined(String name, String text)
+			throws IOException {
+		StringWriter output = new StringWriter();
+		List<Diagnostic> diagnostics = PipelinedFormatter.format(
+				new StringReader(text), name, output);
+		return new Result(output.toString(), diagnostics);
+	}
+
+	private static Result tokens(Path file, String name) throws IOException {
+		StringWriter output = new StringWriter();
+		List<Diagnostic> diagnostics = TokenFile.format(file, name, output,
+				Lexer.DEFAULT_STEP_LIMIT, Lexer.DEFAULT_TIME_LIMIT, null);
+		return new Result(output.toString(), diagnostics);
+	}
+
+	// compare prints whether a result matches the serial one, and where
+	//   they first differ if not. Problems are compared when the way of
+	//   formatting reports them.
+
+	private static void compare(String name, String way, Result expected,
+			Result found) {
+		String outcome = "ok";
+		int length = Math.min(expected.output.length(), found.output.length()),
+				at = 0;
+
+		while (at < length && expected.output.charAt(at) ==
+				found.output.charAt(at))
+			at++;
+		if (at < expected.output.length() || at < found.output.length()) {
+			int line = 1;
+			for (int i = 0; i < at; i++)
+				if (expected.output.charAt(i) == '\n')
+					line++;
+			outcome = "output differs at line " + line;
+		} else if (found.diagnostics != null &&
+				!expected.diagnostics.toString()
+						.equals(found.diagnostics.toString()))
+			outcome = "problems differ: " + found.diagnostics + " instead of " +
+					expected.diagnostics;
+		if (!outcome.equals("ok"))
+			differences++;
+		System.out.println(String.format("%-18s %-20s %s", name, way,
+				outcome));
+	}
+
+	// A Result is the output of one way of formatting and the problems it
+	//   reported, or null if it does not report them.
+
+	private static final class Result {
+		final String output;
+		final List<Diagnostic> diagnostics;
+
+		Result(String output, List<Diagnostic> diagnostics) {
+			this.output = output;
+			this.diagnostics = diagnostics;
+		}
+	}
+}
@@ -1,12 +1,29 @@
 
 // The Format class contains the methods necessary for formatting a
 //   C program. Only the file method is public. Recursive descent
-//   parsing is used to parse the program and perform the formatting.
+//   parsing is used to parse the program and perform the formatting,
+//   except that nested statements and parentheses are kept on an
+//   explicit stack and counter rather than on the thread's stack, so
+//   deeply nested code cannot overflow it. The nesting depth is limited
+//   by the format.depthLimit system property or setDepthLimit. Every
+//   loop stops at the end of the input, which is reported as a
+//   diagnostic by the lexer if it comes in the middle of a declaration
+//   or statement.
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
 
 public class Format {
+	static final int DEFAULT_DEPTH_LIMIT =
+			Integer.getInteger("format.depthLimit", 1 << 16);
+	private static final int COMPOUND = 0, SWITCH = 1, CASE = 2;
 	private Lexer lexer;
 	private Output output;
 	private Token token;
+	private int[] blocks = new int[16];
+	private int depth;
+	private int depthLimit = DEFAULT_DEPTH_LIMIT;
+	private boolean endReported;
 
 	//  The constructor establishes the input lexer and the output
 	//    private data members.
@@ -16,15 +33,70 @@ public class Format {
 		this.output = output;
 	}
 
+	//  setDepthLimit sets the deepest nesting of blocks, switch statements
+	//    and parentheses that is formatted. Deeper nesting throws a
+	//    FormatException.
+
+	public void setDepthLimit(int depthLimit) {
+		if (depthLimit < 1)
+			throw new IllegalArgumentException(
+					"depth limit must be at least 1: " + depthLimit);
+		this.depthLimit = depthLimit;
+	}
+
 	//  file is the only public method. External
 	//    declarations are formatted until a function is found, at
 	//    which time functionBody is called to format it.
 
 	public void file() {
+		file(() -> false);
+	}
+
+	//  file formats external declarations and functions until the end
+	//    of the file, or until the stop test returns true at the start of
+	//    a unit that follows a function body. It returns true if it
+	//    stopped before the end of the file.
+
+	boolean file(BooleanSupplier stop) {
 		token = lexer.getNextToken();
-		while (token != Token.END_OF_FILE)
-			if (externalDeclaration())
+		while (token != Token.END_OF_FILE) {
+			FormatEvents.UnitEvent event = unitStarted();
+			boolean function = externalDeclaration();
+			if (function)
 				functionBody();
+			unitEnded(event, function);
+			if (function && token != Token.END_OF_FILE && stop.getAsBoolean())
+				return true;
+		}
+		return false;
+	}
+
+	//  unitStarted starts a flight recorder event for a top-level unit,
+	//    if events are available, and unitEnded ends it. The line and
+	//    offset are only looked up while a recording is running.
+
+	private FormatEvents.UnitEvent unitStarted() {
+		if (!FormatEvents.AVAILABLE)
+			return null;
+		FormatEvents.UnitEvent event = new FormatEvents.UnitEvent();
+		if (event.isEnabled()) {
+			event.line = lexer.getLine();
+			event.characters = lexer.getTokenOffset();
+		}
+		event.begin();
+		return event;
+	}
+
+	private void unitEnded(FormatEvents.UnitEvent event, boolean function) {
+		if (event == null)
+			return;
+		event.end();
+		if (!event.shouldCommit())
+			return;
+		event.fileName = output.name();
+		event.characters = lexer.getTokenOffset() - event.characters;
+		event.function = function;
+		event.commit();
 	}
 
 	//  functionBody formats the declarations and statements in a
@@ -49,6 +121,16 @@ public class Format {
 	// compoundStatement formats a multiple statement block
 
 	private void compoundStatement() {
+		int base = depth;
+
+		startCompoundStatement();
+		statements(base);
+	}
+
+	// startCompoundStatement formats the opening brace and declarations
+	//   of a block and pushes it on the block stack.
+
+	private void startCompoundStatement() {
 		int noOfDeclarations = 0;
 		token = lexer.getNextToken();
 		output.endLine(false);
@@ -61,14 +143,51 @@ public class Format {
 		}
 		if (noOfDeclarations > 0)
 			output.skipLine();
-		while (token != Token.RIGHT_BRACE)
-			statement();
-		token = lexer.getNextToken();
-		output.endLine(false);
+		push(COMPOUND);
+	}
+
+	//  statements formats statements until the blocks and switch
+	//    statements above base on the block stack are closed. The top of
+	//    the stack determines what the current token may do: close a
+	//    block, end the statements of a case, start the next case or end
+	//    a switch statement; otherwise it starts a statement.
+
+	private void statements(int base) {
+		while (depth > base) {
+			if (atEnd()) {
+				depth = base;
+				return;
+			}
+			int block = blocks[depth - 1];
+			if (block == COMPOUND && token == Token.RIGHT_BRACE) {
+				token = lexer.getNextToken();
+				output.endLine(false);
+				depth--;
+			} else if (block == CASE && (token == Token.CASE ||
+					token == Token.DEFAULT || token == Token.RIGHT_BRACE)) {
+				output.unindent();
+				blocks[depth - 1] = SWITCH;
+			} else if (block == SWITCH &&
+					(token == Token.CASE || token == Token.DEFAULT)) {
+				expression(Token.COLON);
+				lexer.adjustSpacing(Lexer.SUPPRESS_LEADING_SPACE);
+				token = lexer.getNextToken();
+				output.endLine(false);
+				output.indent();
+				blocks[depth - 1] = CASE;
+			} else if (block == SWITCH) {
+				verifyCurrentToken(Token.RIGHT_BRACE);
+				output.endLine(false);
+				output.unindent();
+				depth--;
+			} else
+				statement();
+		}
 	}
 
-	//  statement determines the type of statement and calls the
-	//    appropriate function to format it.
+	//  statement determines the type of statement and formats it. A
+	//    block or switch statement is only started, and pushed on the
+	//    block stack for statements to finish.
 
 	private void statement() {
 		if (token == Token.IDENTIFIER)
@@ -80,10 +199,10 @@ public class Format {
 			}
 		switch (token) {
 			case LEFT_BRACE:
-				compoundStatement();
+				startCompoundStatement();
 				break;
 			case SWITCH:
-				switchStatement();
+				startSwitchStatement();
 				break;
 			case BREAK:
 			case CONTINUE:
@@ -110,9 +229,11 @@ public class Format {
 		}
 	}
 
-	//  switchStatement formats a switch statement.
+	//  startSwitchStatement formats the heading of a switch statement and
+	//    pushes it on the block stack; its cases are formatted by
+	//    statements.
 
-	private void switchStatement() {
+	private void startSwitchStatement() {
 		verifyNextToken(Token.LEFT_PARENTHESIS);
 		expression(Token.RIGHT_PARENTHESIS);
 		token = lexer.getNextToken();
@@ -120,32 +241,19 @@ public class Format {
 		output.indent();
 		verifyCurrentToken(Token.LEFT_BRACE);
 		output.endLine(false);
-		while (token == Token.CASE || token == Token.DEFAULT) {
-			if (token == Token.CASE) {
-				expression(Token.COLON);
-				lexer.adjustSpacing(Lexer.SUPPRESS_LEADING_SPACE);
-				token = lexer.getNextToken();
-				output.endLine(false);
-				output.indent();
-				while (token != Token.CASE && token !=
-						Token.DEFAULT && token != Token.RIGHT_BRACE)
-					statement();
-				output.unindent();
-			} else {
-				expression(Token.COLON);
-				lexer.adjustSpacing(Lexer.SUPPRESS_LEADING_SPACE);
-				token = lexer.getNextToken();
-				output.endLine(false);
-				output.indent();
-				while (token != Token.CASE && token != Token.DEFAULT &&
-						token != Token.RIGHT_BRACE)
-					statement();
-				output.unindent();
-			}
-		}
-		verifyCurrentToken(Token.RIGHT_BRACE);
-		output.endLine(false);
-		output.unindent();
+		push(SWITCH);
+	}
+
+	//  push pushes a block on the block stack, which grows as needed up
+	//    to the depth limit.
+
+	private void push(int block) {
+		if (depth >= depthLimit)
+			throw tooDeep();
+		if (depth == blocks.length)
+			blocks = Arrays.copyOf(blocks,
+					(int) Math.min(2L * depth, depthLimit));
+		blocks[depth++] = block;
 	}
 
 	// externalDeclarations formats external declarations such as
@@ -157,6 +265,8 @@ public class Format {
 		boolean indentAtSemicolon = false;
 		Token lastToken = Token.NOT_FOUND;
 		while ((braceCount > 0) || (token != Token.SEMICOLON)) {
+			if (atEnd())
+				return false;
 			lexer.checkDeclarationSpacing(token);
 			if (token == Token.LEFT_BRACE) {
 				output.endLine(false);
@@ -179,7 +289,7 @@ public class Format {
 				if (token != Token.SEMICOLON)
 					return true;
 			} else if (token == Token.ASSIGNMENT_OPERATOR)
-				while (token != Token.SEMICOLON) {
+				while (token != Token.SEMICOLON && !atEnd()) {
 					lastToken = token;
 					token = lexer.getNextToken();
 					lexer.checkExpressionSpacing(token, lastToken);
@@ -211,6 +321,8 @@ public class Format {
 	private void parameterDeclaration() {
 		int braceCount = 0;
 		while ((braceCount > 0) || (token != Token.SEMICOLON)) {
+			if (atEnd())
+				return;
 			lexer.checkDeclarationSpacing(token);
 			if (token == Token.LEFT_BRACE) {
 				output.endLine(false);
@@ -239,6 +351,8 @@ public class Format {
 		boolean indentAtSemicolon = false;
 
 		while ((braceCount > 0) || (token != Token.SEMICOLON)) {
+			if (atEnd())
+				return;
 			lexer.checkDeclarationSpacing(token);
 			if (token == Token.LEFT_BRACE) {
 				output.endLine(false);
@@ -270,27 +384,57 @@ public class Format {
 	}
 
 	//  expression formats an expression. The delimiting token must
-	//    be provided.
+	//    be provided. Within parentheses the delimiter is the closing
+	//    parenthesis and spacing starts afresh, so the only state kept
+	//    for the parentheses that are open is their number.
 
 	private void expression(Token terminator) {
 		Token lastToken;
+		int parentheses = 0;
 
 		lastToken = Token.NOT_FOUND;
-		while (token != terminator) {
-			lexer.checkExpressionSpacing(token, lastToken);
+		while ((parentheses > 0 || token != terminator) && !atEnd()) {
+			if (parentheses > 0 && token == Token.RIGHT_PARENTHESIS) {
+				parentheses--;
+			} else {
+				lexer.checkExpressionSpacing(token, lastToken);
 
-			if (token == Token.LEFT_PARENTHESIS) {
-				if (lastToken == Token.IDENTIFIER ||
-						lastToken == Token.UPPER_CASE_IDENTIFIER)
-					lexer.adjustSpacing(Lexer.SUPPRESS_LEADING_SPACE);
-				token = lexer.getNextToken();
-				expression(Token.RIGHT_PARENTHESIS);
+				if (token == Token.LEFT_PARENTHESIS) {
+					if (lastToken == Token.IDENTIFIER ||
+							lastToken == Token.UPPER_CASE_IDENTIFIER)
+						lexer.adjustSpacing(Lexer.SUPPRESS_LEADING_SPACE);
+					if (depth + ++parentheses > depthLimit)
+						throw tooDeep();
+					token = lexer.getNextToken();
+					lastToken = Token.NOT_FOUND;
+					continue;
+				}
 			}
 			lastToken = token;
 			token = lexer.getNextToken();
 		}
 	}
 
+	//  atEnd returns true at the end of the input, reporting it the first
+	//    time it is reached inside a declaration or statement.
+
+	private boolean atEnd() {
+		if (token != Token.END_OF_FILE)
+			return false;
+		if (!endReported) {
+			lexer.report("unexpected end of input");
+			endReported = true;
+		}
+		return true;
+	}
+
+	//  tooDeep returns the exception for nesting deeper than the limit.
+
+	private FormatException tooDeep() {
+		return new FormatException(lexer.diagnostic(
+				"nesting deeper than " + depthLimit));
+	}
+
 	// Gets the next token and then verifies that the supplied token is
 	//   the required token.
 
@@ -0,0 +1,229 @@
+// The FormatCache class is a persistent cache of formatted output in a
+//   directory. An entry is named by a 128-bit hash of the input bytes
+//   and a hash of everything else the output depends on: the file name
+//   in the page headings, the character set, the formatter version and
+//   the Output layout constants. Entries are written to a temporary file
+//   and renamed into place, so concurrent workers and processes never
+//   see a partial entry. The total size of the entries is bounded; a
+//   hit touches the entry's modification time, and when the bound is
+//   exceeded the least recently used entries are deleted.
+
+import java.io.*;
+import java.nio.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.*;
+
+public class FormatCache {
+
+	// FORMAT_VERSION must be changed whenever a change to the Lexer,
+	//   Format or Output classes changes the formatted output.
+
+	static final int FORMAT_VERSION = 1;
+	public static final long DEFAULT_LIMIT = 256L << 20;
+	private static final String TEMPORARY_SUFFIX = ".tmp";
+	static final long C1 = 0x87c37b91114253d5L,
+			C2 = 0x4cf5ad432745937fL;
+	private final Path directory;
+	private final long limit;
+	private final AtomicLong size = new AtomicLong();
+	private final ReentrantLock evicting = new ReentrantLock();
+
+	// The constructor opens or creates the cache directory and adds up
+	//   the size of the entries already in it.
+
+	public FormatCache(Path directory, long limit) throws IOException {
+		this.directory = directory;
+		this.limit = limit;
+		Files.createDirectories(directory);
+		try (Stream<Path> entries = Files.list(directory)) {
+			size.set(entries.mapToLong(FormatCache::sizeOf).sum());
+		}
+	}
+
+	// key returns the name of the entry for an input file's bytes.
+
+	public String key(byte[] input, String fileName) {
+		long[] content = hash(input, 0);
+		byte[] settings = (fileName + '\0' + Charset.defaultCharset().name() +
+				'\0' + FORMAT_VERSION + '\0' + Output.layout())
+				.getBytes(StandardCharsets.UTF_8);
+		return String.format("%016x%016x-%016x", content[0], content[1],
+				hash(settings, 0)[0]);
+	}
+
+	// get returns the cached output for the key, or null if there is
+	//   none. A hit marks the entry as recently used.
+
+	public byte[] get(String key) {
+		Path entry = directory.resolve(key);
+		try {
+			byte[] output = Files.readAllBytes(entry);
+			Files.setLastModifiedTime(entry,
+					FileTime.fromMillis(System.currentTimeMillis()));
+			return output;
+		} catch (IOException exception) {
+			return null;
+		}
+	}
+
+	// put stores the output under the key, then evicts entries if the
+	//   cache has grown beyond its limit. Failures only lose the entry.
+
+	public void put(String key, byte[] output) {
+		if (output.length > limit)
+			return;
+		Path temporary = null;
+		try {
+			temporary = Files.createTempFile(directory, key, TEMPORARY_SUFFIX);
+			Files.write(temporary, output);
+			long replaced = sizeOf(directory.resolve(key));
+			Files.move(temporary, directory.resolve(key),
+					StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+			temporary = null;
+			if (size.addAndGet(output.length - replaced) > limit)
+				evict();
+		} catch (IOException exception) {
+			// The entry is simply not cached.
+		} finally {
+			if (temporary != null)
+				try {
+					Files.deleteIfExists(temporary);
+				} catch (IOException exception) {
+					// Left for a later eviction.
+				}
+		}
+	}
+
+	// evict deletes the least recently used entries until the cache is
+	//   below nine tenths of its limit. Only one thread evicts at a time;
+	//   the others carry on, and the evicting thread checks again once it
+	//   is done for entries they have added meanwhile.
+
+	private void evict() throws IOException {
+		if (!evicting.tryLock())
+			return;
+		try {
+			List<Path> entries;
+			try (Stream<Path> list = Files.list(directory)) {
+				entries = list.collect(Collectors.toList());
+			}
+			Map<Path, Long> used = new HashMap<>();
+			long total = 0;
+			for (Path entry : entries) {
+				try {
+					used.put(entry,
+							Files.getLastModifiedTime(entry).toMillis());
+					total += Files.size(entry);
+				} catch (IOException exception) {
+					used.put(entry, Long.MAX_VALUE);
+				}
+			}
+			size.set(total);
+			entries.sort(Comparator.comparing(used::get));
+			for (Path entry : entries) {
+				if (total <= limit - limit / 10)
+					break;
+				long entrySize = sizeOf(entry);
+				if (Files.deleteIfExists(entry)) {
+					total -= entrySize;
+					size.addAndGet(-entrySize);
+				}
+			}
+		} finally {
+			evicting.unlock();
+		}
+		if (size.get() > limit)
+			evict();
+	}
+
+	private static long sizeOf(Path entry) {
+		try {
+			return Files.size(entry);
+		} catch (IOException exception) {
+			return 0;
+		}
+	}
+
+	// hash returns the 128-bit MurmurHash3 of the bytes.
+
+	static long[] hash(byte[] data, long seed) {
+		ByteBuffer buffer = ByteBuffer.wrap(data)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		int blocks = data.length / 16;
+		long h1 = seed, h2 = seed;
+
+		for (int i = 0; i < blocks; i++) {
+			long k1 = buffer.getLong(i * 16), k2 = buffer.getLong(i * 16 + 8);
+			h1 ^= Long.rotateLeft(k1 * C1, 31) * C2;
+			h1 = (Long.rotateLeft(h1, 27) + h2) * 5 + 0x52dce729;
+			h2 ^= Long.rotateLeft(k2 * C2, 33) * C1;
+			h2 = (Long.rotateLeft(h2, 31) + h1) * 5 + 0x38495ab5;
+		}
+		long k1 = 0, k2 = 0;
+		int tail = blocks * 16;
+		for (int i = data.length - 1; i >= tail; i--)
+			if (i - tail >= 8)
+				k2 = (k2 << 8) | (data[i] & 0xff);
+			else
+				k1 = (k1 << 8) | (data[i] & 0xff);
+		return finish(h1, h2, k1, k2, data.length);
+	}
+
+	// hash returns the 128-bit MurmurHash3 of a range of characters, taken
+	//   as little-endian 16-bit units.
+
+	static long[] hash(char[] data, int start, int length, long seed) {
+		int blocks = length / 8, end = start + length;
+		long h1 = seed, h2 = seed;
+
+		for (int i = start; i < start + blocks * 8; i += 8) {
+			long k1 = data[i] | (long) data[i + 1] << 16 |
+					(long) data[i + 2] << 32 | (long) data[i + 3] << 48;
+			long k2 = data[i + 4] | (long) data[i + 5] << 16 |
+					(long) data[i + 6] << 32 | (long) data[i + 7] << 48;
+			h1 ^= Long.rotateLeft(k1 * C1, 31) * C2;
+			h1 = (Long.rotateLeft(h1, 27) + h2) * 5 + 0x52dce729;
+			h2 ^= Long.rotateLeft(k2 * C2, 33) * C1;
+			h2 = (Long.rotateLeft(h2, 31) + h1) * 5 + 0x38495ab5;
+		}
+		long k1 = 0, k2 = 0;
+		int tail = start + blocks * 8;
+		for (int i = end - 1; i >= tail; i--)
+			if (i - tail >= 4)
+				k2 = (k2 << 16) | data[i];
+			else
+				k1 = (k1 << 16) | data[i];
+		return finish(h1, h2, k1, k2, 2L * length);
+	}
+
+	// finish mixes the last partial block and the length into the hash.
+
+	static long[] finish(long h1, long h2, long k1, long k2,
+			long length) {
+		h1 ^= Long.rotateLeft(k1 * C1, 31) * C2;
+		h2 ^= Long.rotateLeft(k2 * C2, 33) * C1;
+		h1 ^= length;
+		h2 ^= length;
+		h1 += h2;
+		h2 += h1;
+		h1 = mix(h1);
+		h2 = mix(h2);
+		h1 += h2;
+		h2 += h1;
+		return new long[] {h1, h2};
+	}
+
+	private static long mix(long k) {
+		k ^= k >>> 33;
+		k *= 0xff51afd7ed558ccdL;
+		k ^= k >>> 33;
+		k *= 0xc4ceb9fe1a85ec53L;
+		return k ^ (k >>> 33);
+	}
+}
@@ -0,0 +1,150 @@
+// The FormatClient class is the thin client of FormatServer. It sends
+//   each named file, or the standard input, to the server and writes the
+//   formatted text to the standard output. With -r the server reads the
+//   files itself, which saves copying them when both run on one host.
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+public class FormatClient implements Closeable {
+	private static final String USAGE = "usage: java FormatClient" +
+			" [-p port] [-r] (file | -)...\n" +
+			"       java FormatClient [-p port] -shutdown";
+	private static final int MAXIMUM_REPLY = Integer.MAX_VALUE - 8;
+	private final Socket socket;
+	private final DataInputStream in;
+	private final DataOutputStream out;
+
+	// The constructor connects to the server on the loopback address and
+	//   sends it the token the server left in its token file.
+
+	public FormatClient(int port) throws IOException {
+		Path tokenFile = FormatServer.tokenPath(port);
+		byte[] token;
+
+		try {
+			token = Files.readAllBytes(tokenFile);
+		} catch (NoSuchFileException exception) {
+			throw new IOException("no server token in " + tokenFile +
+					"; is the server running on port " + port + "?");
+		}
+		if (token.length != FormatServer.TOKEN_SIZE)
+			throw new IOException("bad server token in " + tokenFile);
+		socket = new Socket(InetAddress.getLoopbackAddress(), port);
+		socket.setTcpNoDelay(true);
+		in = new DataInputStream(new BufferedInputStream(
+				socket.getInputStream()));
+		out = new DataOutputStream(new BufferedOutputStream(
+				socket.getOutputStream()));
+		out.write(token);
+	}
+
+	// main formats the files named on the command line, or the standard
+	//   input for "-", and returns 1 if any of them failed.
+
+	public static void main(String[] args) throws IOException {
+		int port = FormatServer.DEFAULT_PORT, status = 0, i = 0;
+		boolean remote = false, shutdown = false;
+
+		for (; i < args.length && args[i].startsWith("-") &&
+				!args[i].equals("-"); i++)
+			if (args[i].equals("-p") && i + 1 < args.length)
+				port = Integer.parseInt(args[++i]);
+			else if (args[i].equals("-r"))
+				remote = true;
+			else if (args[i].equals("-shutdown"))
+				shutdown = true;
+			else
+				break;
+		if (shutdown == (i < args.length)) {
+			System.err.println(USAGE);
+			System.exit(2);
+		}
+		try (FormatClient client = new FormatClient(port)) {
+			if (shutdown)
+				client.shutdown();
+			Writer stdout = new OutputStreamWriter(System.out);
+			for (; i < args.length; i++) {
+				try {
+					if (args[i].equals("-"))
+						stdout.write(client.format(readStandardInput(), "stdin"));
+					else if (remote)
+						stdout.write(client.formatFile(
+								Paths.get(args[i]).toAbsolutePath().toString()));
+					else
+						stdout.write(client.format(new String(Files.readAllBytes(
+								Paths.get(args[i]))), heading(args[i])));
+				} catch (IOException exception) {
+					System.err.println(exception.getMessage());
+					status = 1;
+				}
+			}
+			stdout.flush();
+		}
+		System.exit(status);
+	}
+
+	// format sends the source to the server and returns the formatted
+	//   text. The name appears in the page headings.
+
+	public String format(String source, String name) throws IOException {
+		out.write(FormatServer.FORMAT);
+		out.writeUTF(name);
+		FormatServer.writeBytes(out, source);
+		return reply();
+	}
+
+	// formatFile asks the server to read and format a file.
+
+	public String formatFile(String path) throws IOException {
+		out.write(FormatServer.FILE);
+		out.writeUTF(path);
+		return reply();
+	}
+
+	// shutdown asks the server to stop once its current requests are
+	//   done.
+
+	public void shutdown() throws IOException {
+		out.write(FormatServer.SHUTDOWN);
+		out.writeUTF("");
+		reply();
+	}
+
+	@Override
+	public void close() throws IOException {
+		socket.close();
+	}
+
+	// reply reads the server's answer, throwing its error message if the
+	//   request failed.
+
+	private String reply() throws IOException {
+		out.flush();
+		int status = in.read();
+		if (status < 0)
+			throw new EOFException("server closed the connection");
+		String text = new String(FormatServer.readBytes(in, MAXIMUM_REPLY),
+				StandardCharsets.UTF_8);
+		if (status != FormatServer.OK)
+			throw new IOException(text);
+		return text;
+	}
+
+	private static String heading(String fileName) {
+		return fileName.endsWith(".c") ?
+				fileName.substring(0, fileName.length() - 2) : fileName;
+	}
+
+	private static String readStandardInput() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] block = new byte[8192];
+		int count;
+
+		while ((count = System.in.read(block)) > 0)
+			bytes.write(block, 0, count);
+		return bytes.toString();
+	}
+}
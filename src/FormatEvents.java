@@ -0,0 +1,139 @@
+// The FormatEvents class holds the Java Flight Recorder events of the
+//   formatter, so that recordings show which file and which part of it
+//   a thread was formatting, where the lexer waited for input and how
+//   long output took to flush. They appear under CFormatter in JDK
+//   Mission Control and are recorded by the default and profile
+//   settings; an event whose duration is under its threshold is
+//   dropped.
+//
+//   The events need the jdk.jfr module of JDK 11, or JDK 8 from update
+//   262. AVAILABLE is false on virtual machines without it, and every
+//   use of an event is guarded by it, so the formatter runs on them
+//   unchanged. When no recording is running an event costs no more than
+//   its allocation, which is usually optimized away.
+
+import jdk.jfr.*;
+
+final class FormatEvents {
+	static final boolean AVAILABLE = available();
+
+	private FormatEvents() {
+	}
+
+	private static boolean available() {
+		try {
+			Class.forName("jdk.jfr.Event", false,
+					FormatEvents.class.getClassLoader());
+			return true;
+		} catch (ClassNotFoundException | LinkageError exception) {
+			return false;
+		}
+	}
+
+	// fileStarted starts an event for a file, or returns null if events
+	//   are not available.
+
+	static FileEvent fileStarted() {
+		if (!AVAILABLE)
+			return null;
+		FileEvent event = new FileEvent();
+		event.begin();
+		return event;
+	}
+
+	// fileEnded ends the event for a file, after the given number of
+	//   characters, with the problems found and how it ended.
+
+	static void fileEnded(FileEvent event, String fileName, long characters,
+			int diagnostics, String outcome) {
+		if (event == null)
+			return;
+		event.end();
+		if (!event.shouldCommit())
+			return;
+		event.fileName = fileName;
+		event.characters = characters;
+		event.diagnostics = diagnostics;
+		event.outcome = outcome;
+		event.commit();
+	}
+
+	// A FileEvent spans the formatting of one file, from reading its
+	//   first character to writing its last line.
+
+	@Name("CFormatter.File")
+	@Label("Format File")
+	@Category("CFormatter")
+	@Description("Formatting of one source file")
+	@StackTrace(false)
+	static final class FileEvent extends Event {
+		@Label("File")
+		String fileName;
+
+		@Label("Characters")
+		long characters;
+
+		@Label("Problems")
+		int diagnostics;
+
+		@Label("Outcome")
+		String outcome;
+	}
+
+	// A UnitEvent spans the formatting of one top-level unit: an
+	//   external declaration, and the function body that follows it if
+	//   it is a function.
+
+	@Name("CFormatter.Unit")
+	@Label("Format Unit")
+	@Category("CFormatter")
+	@Description("Formatting of a top-level declaration or function")
+	@StackTrace(false)
+	@Threshold("1 ms")
+	static final class UnitEvent extends Event {
+		@Label("File")
+		String fileName;
+
+		@Label("Line")
+		long line;
+
+		@Label("Characters")
+		long characters;
+
+		@Label("Function")
+		boolean function;
+	}
+
+	// A StallEvent spans a read by the lexer that kept it waiting for
+	//   input.
+
+	@Name("CFormatter.LexerStall")
+	@Label("Lexer Stall")
+	@Category("CFormatter")
+	@Description("Lexer waiting for a block of input")
+	@StackTrace(false)
+	@Threshold("1 ms")
+	static final class StallEvent extends Event {
+		@Label("File")
+		String fileName;
+
+		@Label("Characters Read")
+		long characters;
+	}
+
+	// A FlushEvent spans a flush of the formatted output to its writer.
+
+	@Name("CFormatter.OutputFlush")
+	@Label("Output Flush")
+	@Category("CFormatter")
+	@Description("Flush of formatted output")
+	@StackTrace(false)
+	@Threshold("1 ms")
+	static final class FlushEvent extends Event {
+		@Label("File")
+		String fileName;
+
+		@Label("Pages")
+		int pages;
+	}
+}
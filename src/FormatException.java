@@ -0,0 +1,17 @@
+// A FormatException abandons the formatting of a file that exceeds one
+//   of the formatter's limits, such as the nesting depth or the step or
+//   time budget. The diagnostic gives the line reached.
+
+public class FormatException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+	private final Diagnostic diagnostic;
+
+	public FormatException(Diagnostic diagnostic) {
+		super(diagnostic.toString());
+		this.diagnostic = diagnostic;
+	}
+
+	public Diagnostic getDiagnostic() {
+		return diagnostic;
+	}
+}
@@ -0,0 +1,392 @@
+// The FormatLanguageServer class formats documents for an editor over
+//   the standard input and output, speaking the JSON-RPC messages of the
+//   Language Server Protocol. Each message is a Content-Length header, a
+//   blank line and that many bytes of UTF-8 JSON. The server answers
+//   initialize, shutdown and exit, keeps the documents the editor opens
+//   in memory, applying the whole or partial edits of each change, and
+//   formats them on textDocument/formatting and rangeFormatting.
+//
+//   Each open document has an IncrementalFormatter, so a request only
+//   formats the top-level units that changed since the last one, lexing
+//   from the start of the unit enclosing the first change. The reply
+//   replaces only what differs: one edit for each unit whose output is
+//   not the same as its text, trimmed to the part between their common
+//   start and end. A range request replaces only the units that overlap
+//   the range. Positions count lines and UTF-16 characters, as the
+//   protocol does, with "\r\n", '\r' and '\n' all ending a line.
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+public class FormatLanguageServer {
+	static final int PARSE_ERROR = -32700, INVALID_REQUEST = -32600,
+			METHOD_NOT_FOUND = -32601, INVALID_PARAMS = -32602,
+			INTERNAL_ERROR = -32603;
+	private static final String HEADER = "Content-Length:";
+	private static final String SOURCE_SUFFIX = ".c";
+	private static final int INCREMENTAL_SYNC = 2;
+	private static final int MAXIMUM_MESSAGE = Integer.MAX_VALUE - 8;
+	private final InputStream in;
+	private final OutputStream out;
+	private final Map<String, Document> documents = new HashMap<>();
+	private boolean shutdown;
+
+	// The constructor reads messages from in and writes replies to out.
+
+	public FormatLanguageServer(InputStream in, OutputStream out) {
+		this.in = new BufferedInputStream(in);
+		this.out = new BufferedOutputStream(out);
+	}
+
+	// main serves the editor on the standard input and output until it
+	//   sends exit, exiting with status 0 if it asked the server to shut
+	//   down first and 1 otherwise.
+
+	public static void main(String[] args) throws IOException {
+		System.exit(new FormatLanguageServer(System.in, System.out).serve());
+	}
+
+	// serve answers messages until exit or the end of the input, and
+	//   returns the exit status.
+
+	public int serve() throws IOException {
+		byte[] message;
+
+		while ((message = readMessage()) != null) {
+			Object request;
+			try {
+				request = Json.parse(new String(message, StandardCharsets.UTF_8));
+			} catch (IllegalArgumentException exception) {
+				reply(null, null, PARSE_ERROR, exception.getMessage());
+				continue;
+			}
+			if (!(request instanceof Map)) {
+				reply(null, null, INVALID_REQUEST, "not a request");
+				continue;
+			}
+			Map<?, ?> fields = (Map<?, ?>) request;
+			Object id = fields.get("id"), method = fields.get("method");
+			if ("exit".equals(method))
+				return shutdown ? 0 : 1;
+			if (!(method instanceof String)) {
+				if (fields.containsKey("id") && !fields.containsKey("result") &&
+						!fields.containsKey("error"))
+					reply(id, null, INVALID_REQUEST, "no method");
+				continue;
+			}
+			handle(fields.containsKey("id"), id, (String) method,
+					fields.get("params"));
+		}
+		return 1;
+	}
+
+	// handle performs one request or notification, replying to requests.
+	//   A notification with a method the server does not know is ignored.
+
+	private void handle(boolean request, Object id, String method,
+			Object params) throws IOException {
+		Object result;
+
+		try {
+			switch (method) {
+				case "initialize":
+					result = capabilities();
+					break;
+				case "shutdown":
+					shutdown = true;
+					result = null;
+					break;
+				case "textDocument/didOpen":
+					open(params);
+					return;
+				case "textDocument/didChange":
+					change(params);
+					return;
+				case "textDocument/didClose":
+					documents.remove(uri(params));
+					return;
+				case "textDocument/formatting":
+					result = format(params, false);
+					break;
+				case "textDocument/rangeFormatting":
+					result = format(params, true);
+					break;
+				default:
+					if (request)
+						reply(id, null, METHOD_NOT_FOUND,
+								"unknown method " + method);
+					return;
+			}
+		} catch (ClassCastException | NullPointerException |
+				IllegalArgumentException exception) {
+			if (request)
+				reply(id, null, INVALID_PARAMS, method + ": bad parameters");
+			return;
+		} catch (RuntimeException exception) {
+			if (request)
+				reply(id, null, INTERNAL_ERROR, method + ": " + exception);
+			return;
+		}
+		if (request)
+			reply(id, result, 0, null);
+	}
+
+	// capabilities returns the answer to initialize: incremental document
+	//   changes, and whole and range formatting.
+
+	private static Map<String, Object> capabilities() {
+		Map<String, Object> capabilities = new LinkedHashMap<>(),
+				result = new LinkedHashMap<>(), server = new LinkedHashMap<>();
+
+		capabilities.put("textDocumentSync", INCREMENTAL_SYNC);
+		capabilities.put("documentFormattingProvider", true);
+		capabilities.put("documentRangeFormattingProvider", true);
+		server.put("name", "CFormatter");
+		result.put("capabilities", capabilities);
+		result.put("serverInfo", server);
+		return result;
+	}
+
+	private void open(Object params) {
+		Map<?, ?> item = map(map(params).get("textDocument"));
+		String uri = (String) item.get("uri");
+
+		documents.put(uri, new Document(uri, (String) item.get("text")));
+	}
+
+	// change applies the changes in order. A change without a range
+	//   replaces the whole text.
+
+	private void change(Object params) {
+		Document document = document(params);
+
+		for (Object change : (List<?>) map(params).get("contentChanges")) {
+			Map<?, ?> edit = map(change);
+			String text = (String) edit.get("text");
+			if (text == null)
+				throw new IllegalArgumentException("change without text");
+			if (edit.get("range") == null) {
+				document.text.setLength(0);
+				document.text.append(text);
+				continue;
+			}
+			Map<?, ?> range = map(edit.get("range"));
+			int start = offset(document.text, map(range.get("start"))),
+					end = offset(document.text, map(range.get("end")));
+			document.text.replace(start, Math.max(start, end), text);
+		}
+	}
+
+	// format formats the document and returns the edits that turn its
+	//   text into the output, for every unit or for those that overlap
+	//   the range of the request.
+
+	private List<Object> format(Object params, boolean ranged) {
+		Document document = document(params);
+		String output = document.formatter.format(document.text);
+		char[] text = ParallelFormatter.normalizeLineEnds(
+				document.text.toString().toCharArray(), document.text.length());
+		int[] textOffsets = document.formatter.textOffsets(),
+				outputOffsets = document.formatter.outputOffsets();
+		int first = 0, last = textOffsets.length - 1;
+
+		if (ranged) {
+			Map<?, ?> range = map(map(params).get("range"));
+			CharSequence normalized = new String(text);
+			int start = offset(normalized, map(range.get("start"))),
+					end = offset(normalized, map(range.get("end")));
+			while (first + 1 < last && textOffsets[first + 1] <= start)
+				first++;
+			last = first + 1;
+			while (last < textOffsets.length - 1 && textOffsets[last] < end)
+				last++;
+		}
+		List<Object> edits = new ArrayList<>();
+		Cursor cursor = new Cursor(text);
+		for (int i = first; i < last; i++) {
+			int start = textOffsets[i], end = textOffsets[i + 1],
+					outputStart = outputOffsets[i], outputEnd = outputOffsets[i + 1];
+			while (start < end && outputStart < outputEnd &&
+					text[start] == output.charAt(outputStart)) {
+				start++;
+				outputStart++;
+			}
+			while (end > start && outputEnd > outputStart &&
+					text[end - 1] == output.charAt(outputEnd - 1)) {
+				end--;
+				outputEnd--;
+			}
+			if (start == end && outputStart == outputEnd)
+				continue;
+			Map<String, Object> range = new LinkedHashMap<>(),
+					edit = new LinkedHashMap<>();
+			range.put("start", cursor.position(start));
+			range.put("end", cursor.position(end));
+			edit.put("range", range);
+			edit.put("newText", output.substring(outputStart, outputEnd));
+			edits.add(edit);
+		}
+		return edits;
+	}
+
+	private Document document(Object params) {
+		Document document = documents.get(uri(params));
+		if (document == null)
+			throw new IllegalArgumentException("document not open");
+		return document;
+	}
+
+	private static String uri(Object params) {
+		return (String) map(map(params).get("textDocument")).get("uri");
+	}
+
+	private static Map<?, ?> map(Object value) {
+		if (value == null)
+			throw new IllegalArgumentException("missing parameter");
+		return (Map<?, ?>) value;
+	}
+
+	// offset returns the offset in the text of a position, clamped to the
+	//   end of its line and to the end of the text.
+
+	static int offset(CharSequence text, Map<?, ?> position) {
+		long line = ((Number) position.get("line")).longValue(),
+				character = ((Number) position.get("character")).longValue();
+		int offset = 0, length = text.length();
+
+		for (; line > 0 && offset < length; offset++) {
+			char next = text.charAt(offset);
+			if (next == '\n' || next == '\r') {
+				if (next == '\r' && offset + 1 < length &&
+						text.charAt(offset + 1) == '\n')
+					offset++;
+				line--;
+			}
+		}
+		for (; character > 0 && offset < length; character--, offset++) {
+			char next = text.charAt(offset);
+			if (next == '\n' || next == '\r')
+				break;
+		}
+		return offset;
+	}
+
+	// readMessage returns the content of the next message, or null at the
+	//   end of the input. Headers other than Content-Length are ignored.
+
+	private byte[] readMessage() throws IOException {
+		long length = -1;
+		String header;
+
+		while ((header = readHeader()) != null && !header.isEmpty())
+			if (header.regionMatches(true, 0, HEADER, 0, HEADER.length()))
+				try {
+					length = Long.parseLong(
+							header.substring(HEADER.length()).trim());
+				} catch (NumberFormatException exception) {
+					throw new IOException("bad header " + header);
+				}
+		if (header == null)
+			return null;
+		if (length < 0 || length > MAXIMUM_MESSAGE)
+			throw new IOException("bad message length " + length);
+		byte[] message = new byte[(int) length];
+		for (int read = 0, count; read < message.length; read += count)
+			if ((count = in.read(message, read, message.length - read)) < 0)
+				throw new EOFException("message cut short");
+		return message;
+	}
+
+	// readHeader returns the next header line without its line end, or
+	//   null at the end of the input.
+
+	private String readHeader() throws IOException {
+		StringBuilder header = new StringBuilder();
+		int next;
+
+		while ((next = in.read()) >= 0 && next != '\n')
+			if (next != '\r')
+				header.append((char) next);
+		return next < 0 && header.length() == 0 ? null : header.toString();
+	}
+
+	// reply sends the result of a request, or an error if code is not 0.
+
+	private void reply(Object id, Object result, int code, String message)
+			throws IOException {
+		Map<String, Object> reply = new LinkedHashMap<>();
+
+		reply.put("jsonrpc", "2.0");
+		reply.put("id", id);
+		if (code == 0)
+			reply.put("result", result);
+		else {
+			Map<String, Object> error = new LinkedHashMap<>();
+			error.put("code", code);
+			error.put("message", message);
+			reply.put("error", error);
+		}
+		byte[] content = Json.write(reply).getBytes(StandardCharsets.UTF_8);
+		out.write((HEADER + " " + content.length + "\r\n\r\n")
+				.getBytes(StandardCharsets.US_ASCII));
+		out.write(content);
+		out.flush();
+	}
+
+	// A Document is the text of an open document and the formatter that
+	//   remembers its units. The page headings show the last segment of
+	//   its URI, without the .c suffix.
+
+	private static final class Document {
+		private final StringBuilder text;
+		private final IncrementalFormatter formatter;
+
+		Document(String uri, String text) {
+			this.text = new StringBuilder(text);
+			formatter = new IncrementalFormatter(heading(uri));
+		}
+
+		private static String heading(String uri) {
+			String path;
+			try {
+				path = new URI(uri).getPath();
+			} catch (URISyntaxException exception) {
+				path = null;
+			}
+			if (path == null)
+				path = uri;
+			String name = path.substring(path.lastIndexOf('/') + 1);
+			return name.endsWith(SOURCE_SUFFIX) ?
+					name.substring(0, name.length() - SOURCE_SUFFIX.length()) :
+					name;
+		}
+	}
+
+	// A Cursor turns increasing offsets of a text into positions, moving
+	//   forward through the text so that the positions of all the edits
+	//   take one pass.
+
+	private static final class Cursor {
+		private final char[] text;
+		private int offset, line, lineStart;
+
+		Cursor(char[] text) {
+			this.text = text;
+		}
+
+		Map<String, Object> position(int target) {
+			Map<String, Object> position = new LinkedHashMap<>();
+
+			for (; offset < target; offset++)
+				if (text[offset] == '\n') {
+					line++;
+					lineStart = offset + 1;
+				}
+			position.put("line", line);
+			position.put("character", target - lineStart);
+			return position;
+		}
+	}
+}
@@ -0,0 +1,307 @@
+// The FormatMetrics class counts what the formatter does over a run:
+//   the files, bytes, characters and lines read, the tokens read of each
+//   kind, the lines and pages written, the time spent lexing, formatting
+//   and writing output, and a histogram of the time taken per file. It
+//   is published as an MXBean while registered, and report gives the
+//   same figures as JSON for the end of a run.
+//
+//   The Lexer and Output of one file count into a Counters object of
+//   their own, which is only touched by the thread formatting the file
+//   and is added to the totals once the file is done. Without Counters
+//   the only cost is a null test on each token and line. With them,
+//   every token and output line is timed; time in Format is what is
+//   left of the file's time. In a pipeline, time spent waiting for the
+//   scanning thread counts as lexing.
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.*;
+import javax.management.*;
+
+public final class FormatMetrics implements FormatMetricsMXBean {
+	static final String OBJECT_NAME = "CFormatter:type=FormatMetrics";
+	private static final Token[] KINDS = Token.values();
+	private static final int BUCKETS = 48;
+	private final LongAdder files = new LongAdder(),
+			failedFiles = new LongAdder(), bytesRead = new LongAdder(),
+			charactersRead = new LongAdder(), linesRead = new LongAdder(),
+			linesWritten = new LongAdder(), pagesWritten = new LongAdder(),
+			lexingNanos = new LongAdder(), formattingNanos = new LongAdder(),
+			outputNanos = new LongAdder(), latencyNanos = new LongAdder();
+	private final AtomicLongArray tokens = new AtomicLongArray(KINDS.length);
+	private final AtomicLongArray latencies = new AtomicLongArray(BUCKETS);
+	private final AtomicLong maximumLatency = new AtomicLong();
+	private ObjectName name;
+
+	// register publishes the metrics on the platform MBean server.
+
+	public void register() throws JMException {
+		name = new ObjectName(OBJECT_NAME);
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+	}
+
+	// unregister removes the metrics from the platform MBean server.
+
+	public void unregister() throws JMException {
+		if (name != null)
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+		name = null;
+	}
+
+	// counters returns new counters for the lexer and output of one file,
+	//   or of one piece of a file.
+
+	Counters counters() {
+		return new Counters();
+	}
+
+	// add adds the counts of a piece of work to the totals.
+
+	void add(Counters counters) {
+		charactersRead.add(counters.charactersRead);
+		linesRead.add(counters.linesRead);
+		linesWritten.add(counters.linesWritten);
+		pagesWritten.add(counters.pagesWritten);
+		lexingNanos.add(counters.lexingNanos);
+		formattingNanos.add(counters.formattingNanos);
+		outputNanos.add(counters.outputNanos);
+		for (int i = 0; i < KINDS.length; i++)
+			if (counters.tokens[i] != 0)
+				tokens.addAndGet(i, counters.tokens[i]);
+	}
+
+	// fileDone records a file of the given size that took the given
+	//   time, and whether it failed.
+
+	void fileDone(long bytes, long nanos, boolean failed) {
+		files.increment();
+		if (failed)
+			failedFiles.increment();
+		bytesRead.add(bytes);
+		latencyNanos.add(nanos);
+		latencies.incrementAndGet(bucket(nanos));
+		maximumLatency.accumulateAndGet(nanos, Math::max);
+	}
+
+	@Override
+	public long getFiles() {
+		return files.sum();
+	}
+
+	@Override
+	public long getFailedFiles() {
+		return failedFiles.sum();
+	}
+
+	@Override
+	public long getBytesRead() {
+		return bytesRead.sum();
+	}
+
+	@Override
+	public long getCharactersRead() {
+		return charactersRead.sum();
+	}
+
+	@Override
+	public long getLinesRead() {
+		return linesRead.sum();
+	}
+
+	@Override
+	public long getTokensRead() {
+		long total = 0;
+
+		for (int i = 0; i < KINDS.length; i++)
+			total += tokens.get(i);
+		return total;
+	}
+
+	@Override
+	public Map<String, Long> getTokens() {
+		Map<String, Long> counts = new LinkedHashMap<>();
+
+		for (int i = 0; i < KINDS.length; i++)
+			if (tokens.get(i) != 0)
+				counts.put(KINDS[i].name(), tokens.get(i));
+		return counts;
+	}
+
+	@Override
+	public long getLinesWritten() {
+		return linesWritten.sum();
+	}
+
+	@Override
+	public long getPagesWritten() {
+		return pagesWritten.sum();
+	}
+
+	@Override
+	public long getLexingMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(lexingNanos.sum());
+	}
+
+	@Override
+	public long getFormattingMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(formattingNanos.sum());
+	}
+
+	@Override
+	public long getOutputMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(outputNanos.sum());
+	}
+
+	@Override
+	public Map<String, Double> getLatencyMillis() {
+		Map<String, Double> latency = new LinkedHashMap<>();
+		long count = getFiles();
+
+		latency.put("mean", count == 0 ? 0 : latencyNanos.sum() / 1e6 / count);
+		latency.put("p50", percentile(0.50));
+		latency.put("p90", percentile(0.90));
+		latency.put("p99", percentile(0.99));
+		latency.put("max", maximumLatency.get() / 1e6);
+		return latency;
+	}
+
+	@Override
+	public String report() {
+		StringBuilder json = new StringBuilder("{");
+
+		field(json, "files", getFiles());
+		field(json, "failedFiles", getFailedFiles());
+		field(json, "bytesRead", getBytesRead());
+		field(json, "charactersRead", getCharactersRead());
+		field(json, "linesRead", getLinesRead());
+		field(json, "tokensRead", getTokensRead());
+		json.append("\"tokens\":{");
+		for (Map.Entry<String, Long> count : getTokens().entrySet())
+			field(json, count.getKey(), count.getValue());
+		trim(json).append("},");
+		field(json, "linesWritten", getLinesWritten());
+		field(json, "pagesWritten", getPagesWritten());
+		field(json, "lexingMillis", getLexingMillis());
+		field(json, "formattingMillis", getFormattingMillis());
+		field(json, "outputMillis", getOutputMillis());
+		json.append("\"latencyMillis\":{");
+		for (Map.Entry<String, Double> value : getLatencyMillis().entrySet())
+			field(json, value.getKey(), String.format(Locale.ROOT, "%.3f",
+					value.getValue()));
+		json.append("\"histogram\":[");
+		for (int i = 0; i < BUCKETS; i++)
+			if (latencies.get(i) != 0)
+				json.append(String.format(Locale.ROOT,
+						"{\"upToMillis\":%.3f,\"files\":%d},",
+						upperBound(i) / 1e6, latencies.get(i)));
+		return trim(json).append("]}}").toString();
+	}
+
+	@Override
+	public void reset() {
+		for (LongAdder adder : new LongAdder[] {files, failedFiles, bytesRead,
+				charactersRead, linesRead, linesWritten, pagesWritten,
+				lexingNanos, formattingNanos, outputNanos, latencyNanos})
+			adder.reset();
+		for (int i = 0; i < KINDS.length; i++)
+			tokens.set(i, 0);
+		for (int i = 0; i < BUCKETS; i++)
+			latencies.set(i, 0);
+		maximumLatency.set(0);
+	}
+
+	// percentile returns the upper bound of the histogram bucket holding
+	//   the given fraction of the files, in milliseconds.
+
+	private double percentile(double fraction) {
+		long count = 0, total = 0;
+
+		for (int i = 0; i < BUCKETS; i++)
+			total += latencies.get(i);
+		if (total == 0)
+			return 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			count += latencies.get(i);
+			if (count >= Math.ceil(fraction * total))
+				return Math.min(upperBound(i), maximumLatency.get()) / 1e6;
+		}
+		return maximumLatency.get() / 1e6;
+	}
+
+	// The histogram buckets double in width: bucket i holds the times of
+	//   at most 2^i microseconds.
+
+	private static int bucket(long nanos) {
+		long micros = Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 1);
+		return Math.min(64 - Long.numberOfLeadingZeros(micros - 1),
+				BUCKETS - 1);
+	}
+
+	private static long upperBound(int bucket) {
+		return TimeUnit.MICROSECONDS.toNanos(1L << bucket);
+	}
+
+	private static void field(StringBuilder json, String name, Object value) {
+		json.append('"').append(name).append("\":").append(value).append(',');
+	}
+
+	// trim removes a trailing comma, before the end of an object or array.
+
+	private static StringBuilder trim(StringBuilder json) {
+		if (json.charAt(json.length() - 1) == ',')
+			json.setLength(json.length() - 1);
+		return json;
+	}
+
+	// Counters are the counts of one piece of work on one thread, added
+	//   to the totals when it is done.
+
+	static final class Counters {
+		private final long started = System.nanoTime();
+		private final long[] tokens = new long[KINDS.length];
+		private long charactersRead, linesRead, linesWritten, pagesWritten;
+		private long lexingNanos, formattingNanos, outputNanos;
+
+		// read counts a block of input.
+
+		void read(long characters, long lines) {
+			charactersRead += characters;
+			linesRead += lines;
+		}
+
+		// consumed sets the characters and lines read to those of the part
+		//   of the input formatted, when the lexer read beyond it.
+
+		void consumed(long characters, long lines) {
+			charactersRead = characters;
+			linesRead = lines;
+		}
+
+		// lexed counts a token and the time taken to get it.
+
+		void lexed(Token token, long nanos) {
+			tokens[token.ordinal()]++;
+			lexingNanos += nanos;
+		}
+
+		// wrote counts a line written, starting at the given time.
+
+		void wrote(long startNanos) {
+			linesWritten++;
+			outputNanos += System.nanoTime() - startNanos;
+		}
+
+		void page() {
+			pagesWritten++;
+		}
+
+		// finish takes the time not spent lexing or writing since the
+		//   counters were created as time spent formatting.
+
+		void finish() {
+			formattingNanos = Math.max(System.nanoTime() - started -
+					lexingNanos - outputNanos, 0);
+		}
+	}
+}
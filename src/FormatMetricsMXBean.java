@@ -0,0 +1,47 @@
+// The FormatMetricsMXBean interface is the management interface of
+//   FormatMetrics, as seen by JConsole and other JMX clients. Times are
+//   totals over all files, in milliseconds.
+
+import java.util.Map;
+
+public interface FormatMetricsMXBean {
+
+	long getFiles();
+
+	long getFailedFiles();
+
+	long getBytesRead();
+
+	long getCharactersRead();
+
+	long getLinesRead();
+
+	long getTokensRead();
+
+	// getTokens returns the number of tokens read of each kind.
+
+	Map<String, Long> getTokens();
+
+	long getLinesWritten();
+
+	long getPagesWritten();
+
+	long getLexingMillis();
+
+	long getFormattingMillis();
+
+	long getOutputMillis();
+
+	// getLatencyMillis returns the mean, median, 90th and 99th percentile
+	//   and maximum time taken per file.
+
+	Map<String, Double> getLatencyMillis();
+
+	// report returns all the metrics as a JSON object.
+
+	String report();
+
+	// reset sets every counter back to zero.
+
+	void reset();
+}
@@ -0,0 +1,296 @@
+// The FormatServer class is a long-lived formatter daemon. It keeps the
+//   Lexer, Format and Output code loaded and compiled, and formats the
+//   requests of FormatClient and other tools over a loopback TCP port,
+//   so small files are formatted in milliseconds rather than in the time
+//   it takes to start a new virtual machine. Only connections from the
+//   local host are possible, and only from its owner: the server writes
+//   a random token to a file only its owner can read, and a connection
+//   that does not start with the token is closed unanswered.
+//
+//   Each connection carries any number of requests, each answered in
+//   turn. A request is an operation code and a name, followed for FORMAT
+//   by the length and UTF-8 bytes of the source. The reply is a status
+//   byte followed by the length and UTF-8 bytes of the formatted text or
+//   of an error message. The server keeps an IncrementalFormatter for
+//   each of the documents most recently sent by name, so when an editor
+//   sends a document again only the functions changed since are
+//   formatted.
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.*;
+import java.security.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class FormatServer {
+	static final int DEFAULT_PORT = 3300;
+	static final int FORMAT = 1, FILE = 2, SHUTDOWN = 3;
+	static final int OK = 0, ERROR = 1, TOKEN_SIZE = 16;
+	private static final String USAGE =
+			"usage: java FormatServer [-p port] [-warmup size[K|M]]";
+	private static final String SOURCE_SUFFIX = ".c";
+	private static final int MAXIMUM_REQUEST = 64 << 20,
+			MAXIMUM_DOCUMENTS = 32, HANDSHAKE_TIMEOUT = 10000;
+	private final ServerSocket server;
+	private final byte[] token = new byte[TOKEN_SIZE];
+	private final Path tokenFile;
+	private final Map<String, IncrementalFormatter> documents =
+			new LinkedHashMap<String, IncrementalFormatter>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(
+						Map.Entry<String, IncrementalFormatter> eldest) {
+					return size() > MAXIMUM_DOCUMENTS;
+				}
+			};
+	private final ExecutorService connections =
+			Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "format-connection");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+	// The constructor listens on the port of the loopback address and
+	//   writes the token clients must send to tokenPath(port). Port 0
+	//   picks a free port.
+
+	public FormatServer(int port) throws IOException {
+		server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+		try {
+			new SecureRandom().nextBytes(token);
+			tokenFile = tokenPath(getPort());
+			writeToken(tokenFile, token);
+		} catch (IOException | RuntimeException exception) {
+			server.close();
+			throw exception;
+		}
+	}
+
+	// tokenPath returns the file holding the token of the server on the
+	//   port, in the .cformatter directory of the user's home.
+
+	static Path tokenPath(int port) {
+		return Paths.get(System.getProperty("user.home"), ".cformatter",
+				"server-" + port + ".token");
+	}
+
+	// main warms up the formatter, then serves requests until a client
+	//   asks the server to shut down.
+
+	public static void main(String[] args) throws IOException {
+		int port = DEFAULT_PORT;
+		long warmup = 1 << 20;
+
+		try {
+			for (int i = 0; i < args.length; i += 2) {
+				if (i + 1 == args.length)
+					throw new IllegalArgumentException(USAGE);
+				if (args[i].equals("-p"))
+					port = Integer.parseInt(args[i + 1]);
+				else if (args[i].equals("-warmup"))
+					warmup = CorpusGenerator.parseSize(args[i + 1]);
+				else
+					throw new IllegalArgumentException(USAGE);
+			}
+		} catch (IllegalArgumentException exception) {
+			System.err.println(USAGE);
+			System.exit(2);
+		}
+		FormatServer server = new FormatServer(port);
+		warmUp(warmup);
+		System.err.println("formatting on " + server.server.getInetAddress()
+				.getHostAddress() + ":" + server.getPort());
+		server.serve();
+	}
+
+	// getPort returns the port the server is listening on.
+
+	public int getPort() {
+		return server.getLocalPort();
+	}
+
+	// serve accepts connections until the server is closed, handling
+	//   each on its own thread.
+
+	public void serve() throws IOException {
+		try {
+			while (true) {
+				final Socket socket;
+				try {
+					socket = server.accept();
+				} catch (SocketException exception) {
+					if (server.isClosed())
+						return;
+					throw exception;
+				}
+				connections.execute(() -> handle(socket));
+			}
+		} finally {
+			connections.shutdown();
+			Files.deleteIfExists(tokenFile);
+		}
+	}
+
+	// close stops accepting connections. Requests already being handled
+	//   are completed.
+
+	public void close() throws IOException {
+		server.close();
+	}
+
+	// warmUp formats generated programs of about size characters so that
+	//   the formatter is compiled before the first request arrives.
+
+	private static void warmUp(long size) {
+		CorpusGenerator generator = new CorpusGenerator(330, 4, 60, 0.1, 0.05);
+
+		for (long done = 0; done < size; done += 64 << 10)
+			CFormatter.format(read(generator.reader(64 << 10)), "warmup");
+	}
+
+	// writeToken writes the token to a file that, where the file system
+	//   has POSIX permissions, only the owner can read, in a directory
+	//   only the owner can open. The file is written under a temporary
+	//   name and renamed, so a client never reads part of a token.
+
+	private static void writeToken(Path path, byte[] token)
+			throws IOException {
+		boolean posix = path.getFileSystem().supportedFileAttributeViews()
+				.contains("posix");
+		Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+		if (posix)
+			Files.createDirectories(path.getParent(),
+					PosixFilePermissions.asFileAttribute(
+							PosixFilePermissions.fromString("rwx------")));
+		else
+			Files.createDirectories(path.getParent());
+		Files.deleteIfExists(temporary);
+		if (posix)
+			Files.createFile(temporary, PosixFilePermissions.asFileAttribute(
+					PosixFilePermissions.fromString("rw-------")));
+		else
+			Files.createFile(temporary);
+		Files.write(temporary, token);
+		Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static String read(Reader reader) {
+		StringBuilder text = new StringBuilder();
+		char[] block = new char[8192];
+		int count;
+
+		try {
+			while ((count = reader.read(block)) > 0)
+				text.append(block, 0, count);
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+		return text.toString();
+	}
+
+	// handle answers the requests on one connection until the client
+	//   closes it. A client that does not send the token within the
+	//   handshake timeout is disconnected without an answer.
+
+	private void handle(Socket socket) {
+		try (Socket connection = socket;
+			 DataInputStream in = new DataInputStream(new BufferedInputStream(
+					 connection.getInputStream()));
+			 DataOutputStream out = new DataOutputStream(
+					 new BufferedOutputStream(connection.getOutputStream()))) {
+			byte[] sent = new byte[TOKEN_SIZE];
+			connection.setSoTimeout(HANDSHAKE_TIMEOUT);
+			in.readFully(sent);
+			if (!MessageDigest.isEqual(sent, token))
+				return;
+			connection.setSoTimeout(0);
+			int operation;
+			while ((operation = in.read()) >= 0) {
+				String name = in.readUTF();
+				byte[] source = null;
+				if (operation == FORMAT)
+					source = readBytes(in, MAXIMUM_REQUEST);
+				if (operation == SHUTDOWN) {
+					reply(out, OK, "");
+					close();
+					return;
+				}
+				try {
+					reply(out, OK, format(operation, name, source));
+				} catch (IOException | RuntimeException exception) {
+					reply(out, ERROR, name + ": " + exception);
+				}
+			}
+		} catch (IOException exception) {
+			// The client has gone; nothing is left to answer.
+		}
+	}
+
+	// format performs one request and returns the formatted text. For
+	//   FILE the name is a path, read by the server, and the page
+	//   headings show the path as sent, without the .c suffix; from
+	//   FormatClient that is the absolute path.
+
+	private String format(int operation, String name, byte[] source)
+			throws IOException {
+		if (operation == FORMAT) {
+			IncrementalFormatter document = document(name);
+			synchronized (document) {
+				return document.format(
+						new String(source, StandardCharsets.UTF_8));
+			}
+		}
+		if (operation != FILE)
+			throw new IOException("unknown operation " + operation);
+		String heading = name.endsWith(SOURCE_SUFFIX) ?
+				name.substring(0, name.length() - SOURCE_SUFFIX.length()) :
+				name;
+		StringWriter result = new StringWriter();
+		try (Reader reader = new BufferedReader(new FileReader(name))) {
+			CFormatter.format(reader, heading, result);
+		}
+		return result.toString();
+	}
+
+	// document returns the incremental formatter for the named document,
+	//   creating it if the document is new or has been evicted.
+
+	private IncrementalFormatter document(String name) {
+		synchronized (documents) {
+			return documents.computeIfAbsent(name, IncrementalFormatter::new);
+		}
+	}
+
+	// readBytes reads a length, which may be at most the limit, and that
+	//   many bytes.
+
+	static byte[] readBytes(DataInputStream in, int limit)
+			throws IOException {
+		int length = in.readInt();
+		if (length < 0 || length > limit)
+			throw new IOException("bad request length " + length);
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return bytes;
+	}
+
+	// writeBytes writes the length and UTF-8 bytes of the text.
+
+	static void writeBytes(DataOutputStream out, String text)
+			throws IOException {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static void reply(DataOutputStream out, int status, String text)
+			throws IOException {
+		out.write(status);
+		writeBytes(out, text);
+		out.flush();
+	}
+}
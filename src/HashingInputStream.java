@@ -0,0 +1,135 @@
+// The HashingInputStream class passes the bytes of an input stream
+//   through unchanged while it takes the 128-bit MurmurHash3 of them, the
+//   same hash FormatCache.hash gives for the bytes as one array. It lets
+//   a reader check what it read against a hash taken earlier without
+//   reading the input a second time or holding it in memory.
+
+import java.io.*;
+
+public class HashingInputStream extends FilterInputStream {
+	private final byte[] pending = new byte[16];
+	private int pendingCount;
+	private long h1, h2, length;
+
+	// The constructor starts the hash with the seed.
+
+	public HashingInputStream(InputStream in, long seed) {
+		super(in);
+		h1 = h2 = seed;
+	}
+
+	// hash returns the hash of all the bytes of the input, reading it to
+	//   the end and closing it.
+
+	public static long[] hash(InputStream input, long seed)
+			throws IOException {
+		try (HashingInputStream in = new HashingInputStream(input, seed)) {
+			byte[] block = new byte[64 * 1024];
+			while (in.read(block, 0, block.length) >= 0)
+				;
+			return in.hash();
+		}
+	}
+
+	@Override
+	public int read() throws IOException {
+		int next = in.read();
+
+		if (next >= 0)
+			update(new byte[] {(byte) next}, 0, 1);
+		return next;
+	}
+
+	@Override
+	public int read(byte[] bytes, int offset, int count) throws IOException {
+		int read = in.read(bytes, offset, count);
+
+		if (read > 0)
+			update(bytes, offset, read);
+		return read;
+	}
+
+	// Skipping would leave bytes out of the hash, so they are read.
+
+	@Override
+	public long skip(long count) throws IOException {
+		byte[] block = new byte[(int) Math.min(count, 8192)];
+		long skipped = 0;
+
+		while (skipped < count) {
+			int read = read(block, 0,
+					(int) Math.min(block.length, count - skipped));
+			if (read < 0)
+				break;
+			skipped += read;
+		}
+		return skipped;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public void mark(int limit) {
+	}
+
+	@Override
+	public void reset() throws IOException {
+		throw new IOException("mark not supported");
+	}
+
+	// hash returns the hash of the bytes read so far.
+
+	public long[] hash() {
+		long k1 = 0, k2 = 0;
+
+		for (int i = pendingCount - 1; i >= 0; i--)
+			if (i >= 8)
+				k2 = (k2 << 8) | (pending[i] & 0xff);
+			else
+				k1 = (k1 << 8) | (pending[i] & 0xff);
+		return FormatCache.finish(h1, h2, k1, k2, length);
+	}
+
+	// update mixes bytes into the hash, sixteen at a time, holding back a
+	//   partial block until the rest of it is read.
+
+	private void update(byte[] bytes, int offset, int count) {
+		length += count;
+		if (pendingCount > 0) {
+			int taken = Math.min(count, pending.length - pendingCount);
+			System.arraycopy(bytes, offset, pending, pendingCount, taken);
+			pendingCount += taken;
+			offset += taken;
+			count -= taken;
+			if (pendingCount < pending.length)
+				return;
+			block(pending, 0);
+			pendingCount = 0;
+		}
+		for (; count >= 16; offset += 16, count -= 16)
+			block(bytes, offset);
+		System.arraycopy(bytes, offset, pending, 0, count);
+		pendingCount = count;
+	}
+
+	private void block(byte[] bytes, int offset) {
+		long k1 = littleEndian(bytes, offset),
+				k2 = littleEndian(bytes, offset + 8);
+
+		h1 ^= Long.rotateLeft(k1 * FormatCache.C1, 31) * FormatCache.C2;
+		h1 = (Long.rotateLeft(h1, 27) + h2) * 5 + 0x52dce729;
+		h2 ^= Long.rotateLeft(k2 * FormatCache.C2, 33) * FormatCache.C1;
+		h2 = (Long.rotateLeft(h2, 31) + h1) * 5 + 0x38495ab5;
+	}
+
+	private static long littleEndian(byte[] bytes, int offset) {
+		long value = 0;
+
+		for (int i = 7; i >= 0; i--)
+			value = value << 8 | (bytes[offset + i] & 0xff);
+		return value;
+	}
+}
@@ -0,0 +1,205 @@
+// The IncrementalFormatter class formats successive versions of one
+//   source file, such as a file open in an editor, reformatting only the
+//   top-level units that have changed. A unit runs from the first token
+//   after a function body, or the start of the file, through the next
+//   function body and the comments and directives after it. Each unit
+//   is formatted as a Chunk, and the length and hash of its text and its
+//   output are kept for the next version. The units at the start and
+//   end of the new text that are unchanged are reused; the formatter is
+//   run from the end of the unchanged start until it reaches the start
+//   of an unchanged unit at the end. The pages are renumbered and the
+//   margins indented as the units are written, so the output is the same
+//   as formatting the whole text, and the work done is proportional to
+//   the size of the change.
+
+import java.io.*;
+import java.util.*;
+
+public class IncrementalFormatter {
+	private final String name;
+	private List<Unit> units = new ArrayList<>();
+	private int reformatted;
+	private int[] textOffsets = {0}, outputOffsets = {0};
+
+	// The constructor sets the name that appears in the page headings.
+
+	public IncrementalFormatter(String name) {
+		this.name = name;
+	}
+
+	// format returns the formatted text.
+
+	public String format(CharSequence text) {
+		StringWriter result = new StringWriter(text.length() * 2);
+		try {
+			format(text.toString().toCharArray(), text.length(), result);
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+		return result.toString();
+	}
+
+	// format formats the text and writes it to the destination, which is
+	//   flushed but not closed.
+
+	public void format(char[] text, int length, Writer destination)
+			throws IOException {
+		text = ParallelFormatter.normalizeLineEnds(text, length);
+		length = text.length;
+		List<Unit> formatted = new ArrayList<>();
+		int prefix = 0, suffix = units.size();
+		int start = 0;
+
+		while (prefix < units.size() &&
+				units.get(prefix).matches(text, length, start)) {
+			formatted.add(units.get(prefix));
+			start += units.get(prefix++).length;
+		}
+		int end = length;
+		while (suffix > Math.max(prefix, 1) &&
+				end - units.get(suffix - 1).length >= start &&
+				units.get(suffix - 1).matches(text, length,
+						end - units.get(suffix - 1).length)) {
+			end -= units.get(--suffix).length;
+		}
+		reformatted = 0;
+		while (start < length || formatted.isEmpty()) {
+			if (start == end && suffix < units.size()) {
+				formatted.addAll(units.subList(suffix, units.size()));
+				break;
+			}
+			Unit unit = new Unit(text, length, name, start);
+			formatted.add(unit);
+			reformatted++;
+			start += unit.length;
+			while (start > end && suffix < units.size())
+				end += units.get(suffix++).length;
+		}
+		units = formatted;
+		write(destination);
+	}
+
+	// reformatted returns the number of units formatted by the last call
+	//   of format; the other units were reused.
+
+	public int reformatted() {
+		return reformatted;
+	}
+
+	// units returns the number of units in the last text formatted.
+
+	public int units() {
+		return units.size();
+	}
+
+	// textOffsets returns the offset of each unit of the last text
+	//   formatted, with its line endings normalized, followed by the
+	//   length of the text.
+
+	int[] textOffsets() {
+		return textOffsets;
+	}
+
+	// outputOffsets returns the offset in the last output of the output
+	//   of each unit, followed by the length of the output.
+
+	int[] outputOffsets() {
+		return outputOffsets;
+	}
+
+	// write writes the output of the units in order, renumbering their
+	//   pages and indenting their margins, and notes where each unit and
+	//   its output start.
+
+	private void write(Writer destination) throws IOException {
+		int pages = 0, indentation = 0, start = 0, i = 0;
+		CountingWriter counted = new CountingWriter(destination);
+
+		textOffsets = new int[units.size() + 1];
+		outputOffsets = new int[units.size() + 1];
+		for (Unit unit : units) {
+			textOffsets[i] = start;
+			outputOffsets[i++] = counted.count;
+			unit.output.writeTo(counted, pages, indentation);
+			pages += unit.output.pages();
+			indentation += unit.output.indentation();
+			start += unit.length;
+		}
+		textOffsets[i] = start;
+		outputOffsets[i] = counted.count;
+		destination.flush();
+	}
+
+	// A CountingWriter passes characters on to another writer, counting
+	//   them.
+
+	private static final class CountingWriter extends FilterWriter {
+		private int count;
+
+		CountingWriter(Writer out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int character) throws IOException {
+			out.write(character);
+			count++;
+		}
+
+		@Override
+		public void write(char[] characters, int offset, int length)
+				throws IOException {
+			out.write(characters, offset, length);
+			count += length;
+		}
+
+		@Override
+		public void write(String string, int offset, int length)
+				throws IOException {
+			out.write(string, offset, length);
+			count += length;
+		}
+	}
+
+	// A Unit is the text of one top-level unit, kept as its length and
+	//   hash, with its formatted output.
+
+	private static final class Unit {
+		private final int length;
+		private final long[] hash;
+		private final boolean last;
+		private final Chunk output;
+
+		// The constructor formats the unit starting at the offset.
+
+		Unit(char[] text, int length, String name, int start) {
+			output = new Chunk(text, length, name, start, start).invoke();
+			output.trim();
+			this.length = (int) output.end() - start;
+			last = output.end() == length;
+			hash = FormatCache.hash(text, start, this.length, 0);
+		}
+
+		// matches returns true if the unit can be reused at the offset of
+		//   the text: the text there is the same, and it is followed by
+		//   the same kind of boundary, either the end of the text or the
+		//   start of a token that is not a comment or a directive.
+
+		boolean matches(char[] text, int length, int start) {
+			int end = start + this.length;
+
+			if (start < 0 || end > length || (last != (end == length)))
+				return false;
+			if (!last) {
+				char next = text[end];
+				if (next == 0 || next == '#' ||
+						ScanTables.is(next, ScanTables.WHITESPACE) ||
+						(next == '/' && end + 1 < length &&
+								text[end + 1] == '*'))
+					return false;
+			}
+			return Arrays.equals(hash, FormatCache.hash(text, start,
+					this.length, 0));
+		}
+	}
+}
@@ -0,0 +1,259 @@
+// The Json class reads and writes the JSON of the language server
+//   protocol. Objects are read as maps that keep the order of their
+//   members, arrays as lists, numbers as Long if they are integers and
+//   Double otherwise, and true, false and null as Boolean and null.
+//   Maps, lists, strings, numbers, booleans and null can be written.
+//   Malformed text throws an IllegalArgumentException.
+
+import java.util.*;
+
+final class Json {
+	private static final int MAXIMUM_DEPTH = 512;
+	private final String text;
+	private int position, depth;
+
+	private Json(String text) {
+		this.text = text;
+	}
+
+	// parse returns the value of a JSON text.
+
+	static Object parse(String text) {
+		Json json = new Json(text);
+		Object value = json.value();
+
+		json.skipWhitespace();
+		if (json.position != text.length())
+			throw json.error("unexpected text after value");
+		return value;
+	}
+
+	// write returns the JSON text of a value.
+
+	static String write(Object value) {
+		StringBuilder json = new StringBuilder();
+
+		write(json, value);
+		return json.toString();
+	}
+
+	private static void write(StringBuilder json, Object value) {
+		if (value == null || value instanceof Boolean ||
+				value instanceof Number)
+			json.append(value);
+		else if (value instanceof CharSequence)
+			writeString(json, value.toString());
+		else if (value instanceof Map) {
+			json.append('{');
+			for (Map.Entry<?, ?> member : ((Map<?, ?>) value).entrySet()) {
+				writeString(json, member.getKey().toString());
+				json.append(':');
+				write(json, member.getValue());
+				json.append(',');
+			}
+			end(json, '}');
+		} else if (value instanceof Collection) {
+			json.append('[');
+			for (Object element : (Collection<?>) value) {
+				write(json, element);
+				json.append(',');
+			}
+			end(json, ']');
+		} else
+			throw new IllegalArgumentException("not a JSON value: " + value);
+	}
+
+	// end replaces a trailing comma with the end of an object or array.
+
+	private static void end(StringBuilder json, char end) {
+		if (json.charAt(json.length() - 1) == ',')
+			json.setLength(json.length() - 1);
+		json.append(end);
+	}
+
+	private static void writeString(StringBuilder json, String string) {
+		json.append('"');
+		for (int i = 0; i < string.length(); i++) {
+			char next = string.charAt(i);
+			switch (next) {
+				case '"':
+					json.append("\\\"");
+					break;
+				case '\\':
+					json.append("\\\\");
+					break;
+				case '\n':
+					json.append("\\n");
+					break;
+				case '\r':
+					json.append("\\r");
+					break;
+				case '\t':
+					json.append("\\t");
+					break;
+				default:
+					if (next < ' ')
+						json.append(String.format("\\u%04x", (int) next));
+					else
+						json.append(next);
+			}
+		}
+		json.append('"');
+	}
+
+	// value reads the value at the current position.
+
+	private Object value() {
+		skipWhitespace();
+		if (position == text.length())
+			throw error("unexpected end of text");
+		char next = text.charAt(position);
+		if (next == '{' || next == '[') {
+			if (++depth > MAXIMUM_DEPTH)
+				throw error("nested too deeply");
+			Object value = next == '{' ? object() : array();
+			depth--;
+			return value;
+		}
+		if (next == '"')
+			return string();
+		if (text.startsWith("true", position)) {
+			position += 4;
+			return Boolean.TRUE;
+		}
+		if (text.startsWith("false", position)) {
+			position += 5;
+			return Boolean.FALSE;
+		}
+		if (text.startsWith("null", position)) {
+			position += 4;
+			return null;
+		}
+		return number();
+	}
+
+	private Map<String, Object> object() {
+		Map<String, Object> object = new LinkedHashMap<>();
+
+		position++;
+		skipWhitespace();
+		if (accept('}'))
+			return object;
+		do {
+			skipWhitespace();
+			if (position == text.length() || text.charAt(position) != '"')
+				throw error("expected a member name");
+			String name = string();
+			skipWhitespace();
+			if (!accept(':'))
+				throw error("expected ':'");
+			object.put(name, value());
+			skipWhitespace();
+		} while (accept(','));
+		if (!accept('}'))
+			throw error("expected ',' or '}'");
+		return object;
+	}
+
+	private List<Object> array() {
+		List<Object> array = new ArrayList<>();
+
+		position++;
+		skipWhitespace();
+		if (accept(']'))
+			return array;
+		do {
+			array.add(value());
+			skipWhitespace();
+		} while (accept(','));
+		if (!accept(']'))
+			throw error("expected ',' or ']'");
+		return array;
+	}
+
+	private String string() {
+		StringBuilder string = new StringBuilder();
+
+		position++;
+		while (true) {
+			if (position == text.length())
+				throw error("unterminated string");
+			char next = text.charAt(position++);
+			if (next == '"')
+				return string.toString();
+			if (next != '\\') {
+				string.append(next);
+				continue;
+			}
+			if (position == text.length())
+				throw error("unterminated string");
+			char escaped = text.charAt(position++);
+			switch (escaped) {
+				case 'b':
+					string.append('\b');
+					break;
+				case 'f':
+					string.append('\f');
+					break;
+				case 'n':
+					string.append('\n');
+					break;
+				case 'r':
+					string.append('\r');
+					break;
+				case 't':
+					string.append('\t');
+					break;
+				case 'u':
+					if (position + 4 > text.length())
+						throw error("bad escape");
+					try {
+						string.append((char) Integer.parseInt(
+								text.substring(position, position + 4), 16));
+					} catch (NumberFormatException exception) {
+						throw error("bad escape");
+					}
+					position += 4;
+					break;
+				default:
+					string.append(escaped);
+			}
+		}
+	}
+
+	private Number number() {
+		int start = position;
+
+		while (position < text.length() &&
+				"+-0123456789.eE".indexOf(text.charAt(position)) >= 0)
+			position++;
+		String number = text.substring(start, position);
+		try {
+			if (number.indexOf('.') < 0 && number.indexOf('e') < 0 &&
+					number.indexOf('E') < 0)
+				return Long.parseLong(number);
+			return Double.parseDouble(number);
+		} catch (NumberFormatException exception) {
+			throw error("expected a value");
+		}
+	}
+
+	private boolean accept(char expected) {
+		if (position < text.length() && text.charAt(position) == expected) {
+			position++;
+			return true;
+		}
+		return false;
+	}
+
+	private void skipWhitespace() {
+		while (position < text.length() &&
+				" \t\r\n".indexOf(text.charAt(position)) >= 0)
+			position++;
+	}
+
+	private IllegalArgumentException error(String message) {
+		return new IllegalArgumentException(message + " at offset " +
+				position);
+	}
+}
@@ -0,0 +1,168 @@
+// The Keywords class classifies a lexeme as a keyword or an identifier.
+//   The keywords are stored in a perfect hash table: the constructor
+//   searches for a hash seed under which no two keywords share a slot,
+//   so a lookup hashes the first, second and last characters and the
+//   length of the lexeme and compares against at most one keyword. The
+//   lexeme is read from a range of a character array, so no String is
+//   created. New keywords, such as those added by C99 and C11, only
+//   need another entry in the list below.
+
+import java.util.*;
+
+final class Keywords {
+	private static final int MAXIMUM_SEED = 1 << 16, MAXIMUM_SIZE = 1 << 12;
+	private static final Keywords C = new Keywords(
+			"auto", Token.SC_SPECIFIER,
+			"break", Token.BREAK,
+			"case", Token.CASE,
+			"char", Token.TYPE_SPECIFIER,
+			"continue", Token.CONTINUE,
+			"default", Token.DEFAULT,
+			"double", Token.TYPE_SPECIFIER,
+			"do", Token.DO,
+			"else", Token.ELSE,
+			"entry", Token.SC_SPECIFIER,
+			"extern", Token.SC_SPECIFIER,
+			"for", Token.FOR,
+			"float", Token.TYPE_SPECIFIER,
+			"goto", Token.GOTO,
+			"if", Token.IF,
+			"int", Token.TYPE_SPECIFIER,
+			"long", Token.TYPE_SPECIFIER,
+			"register", Token.SC_SPECIFIER,
+			"return", Token.RETURN,
+			"short", Token.TYPE_SPECIFIER,
+			"sizeof", Token.SIZEOF,
+			"static", Token.SC_SPECIFIER,
+			"status", Token.STATUS,
+			"struct", Token.STRUCT,
+			"switch", Token.SWITCH,
+			"typedef", Token.SC_SPECIFIER,
+			"union", Token.UNION,
+			"unsigned", Token.TYPE_SPECIFIER,
+			"void", Token.TYPE_SPECIFIER,
+			"while", Token.WHILE);
+	private final char[][] keywords;
+	private final Token[] tokens;
+	private final int seed, shift, minimumLength, maximumLength;
+
+	// The constructor takes alternating keyword strings and tokens. It
+	//   doubles the table size, up to MAXIMUM_SIZE, until a seed is found
+	//   that places every keyword in its own slot. Two keywords that the
+	//   hash cannot tell apart are rejected.
+
+	Keywords(Object... entries) {
+		int size = 4, minimum = Integer.MAX_VALUE, maximum = 0;
+
+		for (int i = 0; i < entries.length; i += 2) {
+			int length = ((String) entries[i]).length();
+			minimum = Math.min(minimum, length);
+			maximum = Math.max(maximum, length);
+		}
+		if (minimum < 2)
+			throw new IllegalArgumentException("keyword too short");
+		checkDistinct(entries);
+		while (size < entries.length * 2)
+			size *= 2;
+		int found;
+		while ((found = findSeed(entries, size)) == 0)
+			if ((size *= 2) > MAXIMUM_SIZE)
+				throw new IllegalArgumentException(
+						"no perfect hash for the keywords");
+
+		minimumLength = minimum;
+		maximumLength = maximum;
+		seed = found;
+		shift = 32 - Integer.numberOfTrailingZeros(size);
+		keywords = place(entries, size, seed, shift);
+		tokens = new Token[size];
+		for (int i = 0; i < entries.length; i += 2) {
+			char[] keyword = ((String) entries[i]).toCharArray();
+			tokens[slot(keyword, 0, keyword.length)] =
+					(Token) entries[i + 1];
+		}
+	}
+
+	// lookup returns the token for a lexeme in the C keyword table.
+
+	static Token lookup(char[] characters, int start, int length) {
+		return C.find(characters, start, length);
+	}
+
+	// find returns the keyword token for the lexeme in the range of the
+	//   array, or IDENTIFIER if it is not a keyword.
+
+	Token find(char[] characters, int start, int length) {
+		if (length < minimumLength || length > maximumLength)
+			return Token.IDENTIFIER;
+		int slot = slot(characters, start, length);
+		char[] keyword = keywords[slot];
+		if (keyword == null || keyword.length != length)
+			return Token.IDENTIFIER;
+		for (int i = 0; i < length; i++)
+			if (keyword[i] != characters[start + i])
+				return Token.IDENTIFIER;
+		return tokens[slot];
+	}
+
+	// checkDistinct throws an exception naming two keywords that have the
+	//   same first, second and last characters and length, which no seed
+	//   can place in different slots.
+
+	private static void checkDistinct(Object[] entries) {
+		Map<String, String> seen = new HashMap<>();
+
+		for (int i = 0; i < entries.length; i += 2) {
+			String keyword = (String) entries[i];
+			String other = seen.put(keyword.substring(0, 2) +
+					keyword.charAt(keyword.length() - 1) + keyword.length(),
+					keyword);
+			if (other != null)
+				throw new IllegalArgumentException("keywords " + other +
+						" and " + keyword + " cannot be told apart");
+		}
+	}
+
+	// findSeed returns the first seed that places every keyword in its
+	//   own slot of a table of the given size, or 0 if there is none.
+
+	private static int findSeed(Object[] entries, int size) {
+		int shift = 32 - Integer.numberOfTrailingZeros(size);
+
+		for (int seed = 1; seed < MAXIMUM_SEED; seed++)
+			if (place(entries, size, seed, shift) != null)
+				return seed;
+		return 0;
+	}
+
+	// place puts every keyword in a table of the given size using the
+	//   seed. It returns null if two keywords fall in the same slot.
+
+	private static char[][] place(Object[] entries, int size, int seed,
+			int shift) {
+		char[][] table = new char[size][];
+
+		for (int i = 0; i < entries.length; i += 2) {
+			char[] keyword = ((String) entries[i]).toCharArray();
+			int slot = hash(keyword, 0, keyword.length, seed, shift);
+			if (table[slot] != null)
+				return null;
+			table[slot] = keyword;
+		}
+		return table;
+	}
+
+	private int slot(char[] characters, int start, int length) {
+		return hash(characters, start, length, seed, shift);
+	}
+
+	// hash mixes the first, second and last characters and the length,
+	//   then takes the top bits of a multiplicative hash as the slot.
+
+	private static int hash(char[] characters, int start, int length,
+			int seed, int shift) {
+		int h = characters[start] * seed + characters[start + 1];
+		h = (h * seed + characters[start + length - 1]) * seed + length;
+		return (h * 0x9E3779B1) >>> shift;
+	}
+}
@@ -1,38 +1,267 @@
 // The Lexer class contains a lexical analyzer that returns Tokens
 //   from the input file on each call to getNextTokens. The class
 //   also contains functions that adjust the spacing based on the
-//   type and context of the Tokens.
+//   type and context of the Tokens. The input is read in large blocks
+//   into a character buffer, and lexemes are ranges of that buffer.
+//   Every scanning loop stops at the end of the input, and problems such
+//   as an unterminated comment are recorded as diagnostics. Each call
+//   of getNextToken is a step; a lexer with a step or time budget throws
+//   a FormatException once it is spent, so no input can keep it busy
+//   indefinitely. For pipelined formatting, one lexer scans the input on
+//   its own thread and passes the tokens through a ring to another that
+//   displays them for Format. A lexer may also record the tokens it
+//   scans in a TokenFile, and another may later read them back from it
+//   with a TokenReader instead of scanning the input again.
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 
 public class Lexer {
 	public static final int SUPPRESS_NEITHER_SPACE = 0,
 			SUPPRESS_LEADING_SPACE = 1, SUPPRESS_TRAILING_SPACE = 2;
-	private int i = 0, spacing;
+	static final long DEFAULT_STEP_LIMIT =
+			Long.getLong("format.stepLimit", Long.MAX_VALUE),
+			DEFAULT_TIME_LIMIT = Long.getLong("format.timeLimit", 0L);
+	private static final int INITIAL_BUFFER_SIZE = 4 * 1024,
+			BUFFER_SIZE = 64 * 1024, LEXEME_SIZE = 80, CLOCK_STEPS = 1024;
+	static final int MAXIMUM_DIAGNOSTICS = 100;
+	private int spacing;
 	private char character;
-	private String line = "";
-	private BufferedReader file;
+	private Reader file;
 	private Output output;
+	private String name;
 	private Token currentToken, lastToken;
-	private String currentLexeme, lastLexeme;
+	private char[] buffer = new char[INITIAL_BUFFER_SIZE];
+	private int position, limit;
+	private boolean endOfInput, afterReturn, atLineStart = true, resuming;
+	private long discarded, markLines;
+	private int lineMark;
+	private SpscRing<Scanned> tokens;
+	private Lexer scanner;
+	private boolean received;
+	private TokenReader stored;
+	private TokenFile recording;
+	private boolean scanning;
+	private long tokenOffset, tokenLine;
+	private long steps, stepLimit = DEFAULT_STEP_LIMIT, deadline;
+	private boolean timeLimited;
+	private final List<Diagnostic> diagnostics = new ArrayList<>();
+	private long unreported, unreportedLine;
+	private FormatMetrics.Counters counters;
+	private int lexemeStart, lexemeLength;
 
 	// Constructor initializes private data members and opens the input
 	//   file.
 
 	public Lexer(String fileName, Output output)
 			throws FileNotFoundException {
-		file = new BufferedReader(new FileReader(fileName + ".c"));
+		this(new FileReader(fileName + ".c"), output);
+	}
+
+	// Constructor initializes private data members and reads the input
+	//   from a reader instead of a file. The reader is read in large
+	//   blocks, so it need not be buffered; a plain FileReader is the
+	//   fastest way to read a file on disk.
+
+	public Lexer(Reader reader, Output output) {
+		file = reader;
+		name = output == null ? null : output.name();
+		character = nextChar();
+		lastToken = Token.NONE;
+		this.output = output;
+		setTimeLimit(DEFAULT_TIME_LIMIT);
+	}
+
+	// Constructor for a lexer that resumes formatting at a token in the
+	//   middle of a file. The input must start at that token, and the
+	//   first call of getNextToken does not display a previous token.
+
+	Lexer(Reader reader, Output output, boolean resuming) {
+		this(reader, output);
+		this.resuming = resuming;
+	}
+
+	// Constructor for a lexer that only scans its input for the produce
+	//   method. The name is given in flight recorder events.
+
+	Lexer(Reader reader, String name) {
+		file = reader;
+		this.name = name;
 		character = nextChar();
-		currentLexeme = "";
+		lastToken = Token.NONE;
+		setTimeLimit(DEFAULT_TIME_LIMIT);
+	}
+
+	// Constructor for a lexer that takes its tokens from a ring filled by
+	//   the produce method of the scanning lexer, instead of reading
+	//   input.
+
+	Lexer(SpscRing<Scanned> tokens, Lexer scanner, Output output) {
+		this.tokens = tokens;
+		this.scanner = scanner;
 		lastToken = Token.NONE;
 		this.output = output;
+		setTimeLimit(DEFAULT_TIME_LIMIT);
+	}
+
+	// Constructor for a lexer that reads its tokens back from a token
+	//   file instead of scanning input.
+
+	Lexer(TokenReader stored, Output output) {
+		this.stored = stored;
+		lastToken = Token.NONE;
+		this.output = output;
+		setTimeLimit(DEFAULT_TIME_LIMIT);
 	}
 
 	// Closes input file
 
 	public void close() throws IOException {
-		file.close();
+		if (file != null)
+			file.close();
+	}
+
+	// setStepLimit sets the number of tokens that may be read before the
+	//   lexer gives up with a FormatException.
+
+	public void setStepLimit(long stepLimit) {
+		this.stepLimit = stepLimit;
+	}
+
+	// setTimeLimit sets the number of milliseconds from now that the
+	//   lexer may run before it gives up with a FormatException. Zero
+	//   means no limit.
+
+	public void setTimeLimit(long timeLimit) {
+		timeLimited = timeLimit > 0;
+		deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeLimit);
+	}
+
+	// setDeadline sets the System.nanoTime value at which the lexer gives
+	//   up, for lexers that share the time budget of a whole file.
+
+	void setDeadline(long deadline) {
+		timeLimited = true;
+		this.deadline = deadline;
+	}
+
+	// setRecording sets the token file that each token scanned, and each
+	//   problem found while scanning it, is written to, or null for none.
+
+	void setRecording(TokenFile recording) {
+		this.recording = recording;
+	}
+
+	// getLine returns the line of the current token.
+
+	long getLine() {
+		return file != null ? lineAt(lexemeStart) : tokenLine;
+	}
+
+	// setCounters sets the counters of the characters, lines and tokens
+	//   read and the time taken to read them, or null for none. It is
+	//   called before the first token is read; the input the constructor
+	//   has already read is counted then.
+
+	void setCounters(FormatMetrics.Counters counters) {
+		this.counters = counters;
+		if (counters != null)
+			counters.read(discarded + limit, lines(0, limit));
+	}
+
+	// getDiagnostics returns the problems found in the input so far, in
+	//   order of their lines. Only the first MAXIMUM_DIAGNOSTICS are
+	//   kept, so the list does not grow with the input; the number of
+	//   the others is given by a last diagnostic. A pipelined lexer
+	//   merges the scanner's problems with its own, the scanner's first
+	//   within a line, since serially a token is scanned before the
+	//   formatter reports anything about it.
+
+	public List<Diagnostic> getDiagnostics() {
+		if (scanner == null)
+			return limit(diagnostics, unreported, unreportedLine);
+		List<Diagnostic> all = new ArrayList<>(scanner.diagnostics);
+		all.addAll(diagnostics);
+		all.sort(Comparator.comparingLong(Diagnostic::getLine));
+		return limit(all, unreported + scanner.unreported,
+				Math.max(unreportedLine, scanner.unreportedLine));
+	}
+
+	// getRecorded returns the problems recorded, at most the first
+	//   MAXIMUM_DIAGNOSTICS, without the count of the others.
+
+	List<Diagnostic> getRecorded() {
+		return Collections.unmodifiableList(diagnostics);
+	}
+
+	// getUnreported returns the number of problems found once the list
+	//   was full, which were only counted.
+
+	long getUnreported() {
+		return unreported;
+	}
+
+	// getUnreportedLine returns the line of the last problem counted but
+	//   not recorded.
+
+	long getUnreportedLine() {
+		return unreportedLine;
+	}
+
+	// limit returns the diagnostics cut to the first MAXIMUM_DIAGNOSTICS,
+	//   followed, if any are left out, by one giving their number and the
+	//   line of the last. more problems were already left out, the last
+	//   of them on moreLine.
+
+	static List<Diagnostic> limit(List<Diagnostic> diagnostics, long more,
+			long moreLine) {
+		int kept = Math.min(diagnostics.size(), MAXIMUM_DIAGNOSTICS);
+
+		if (kept == diagnostics.size() && more == 0)
+			return Collections.unmodifiableList(diagnostics);
+		List<Diagnostic> limited = new ArrayList<>(
+				diagnostics.subList(0, kept));
+		for (Diagnostic diagnostic : diagnostics.subList(kept,
+				diagnostics.size())) {
+			more++;
+			moreLine = Math.max(moreLine, diagnostic.getLine());
+		}
+		limited.add(new Diagnostic(moreLine,
+				more + " more problems not reported"));
+		return limited;
+	}
+
+	// report records a problem found at the current token.
+
+	void report(String message) {
+		record(diagnostic(message));
+	}
+
+	// record adds a diagnostic to the list, or only counts it once the
+	//   list is full.
+
+	private void record(Diagnostic diagnostic) {
+		if (scanning)
+			try {
+				recording.diagnostic(diagnostic);
+			} catch (IOException exception) {
+				throw new UncheckedIOException(exception);
+			}
+		if (diagnostics.size() < MAXIMUM_DIAGNOSTICS)
+			diagnostics.add(diagnostic);
+		else {
+			unreported++;
+			unreportedLine = diagnostic.getLine();
+		}
+	}
+
+	// diagnostic returns a diagnostic at the current token, or at the
+	//   last character once the end of the input has been reached.
+
+	Diagnostic diagnostic(String message) {
+		return new Diagnostic(getLine(), message);
 	}
 
 	// adjustSpacing will set bits in the spacing word to indicate the
@@ -85,51 +314,171 @@ public class Lexer {
 			return currentToken;
 		}
 
-		output.outputToken(currentLexeme, spacing);
+		if (++steps > stepLimit)
+			throw new FormatException(diagnostic(
+					"step limit of " + stepLimit + " tokens exceeded"));
+		if (timeLimited && steps % CLOCK_STEPS == 0 &&
+				System.nanoTime() - deadline > 0)
+			throw new FormatException(diagnostic("time limit exceeded"));
+		if (resuming)
+			resuming = false;
+		else
+			output.outputToken(buffer, lexemeStart, lexemeLength, spacing);
 		spacing = SUPPRESS_NEITHER_SPACE;
-		lastLexeme = currentLexeme;
-		do {
-			currentLexeme = "";
-			while (character != 0 && Character.isWhitespace(character))
-				character = nextChar();
-
-			if (character == 0) {
+		Token token;
+		while ((token = next()) == Token.COMMENT ||
+				token == Token.COMPILER_DIRECTIVE) {
+			currentToken = token;
+			if (token == Token.COMPILER_DIRECTIVE) {
 				output.endLine(false);
-				return Token.END_OF_FILE;
+				output.outputDirective(buffer, lexemeStart, lexemeLength);
 			}
-			if (Character.isUpperCase(character)) {
-				while (Character.isLetter(character) ||
-						Character.isDigit(character) || character == '_') {
-					currentLexeme += character;
-					character = nextChar();
-				}
-				currentToken = Token.UPPER_CASE_IDENTIFIER;
-			} else if (Character.isLetter(character) || character == '_') {
-				while (Character.isLetter(character) ||
-						Character.isDigit(character) || character == '_') {
-					currentLexeme += character;
-					character = nextChar();
-				}
-				currentToken = testToken(currentLexeme);
-			} else if (Character.isDigit(character)) {
-				while (Character.isLetter(character) ||
-						Character.isDigit(character) || character == '.') {
-					currentLexeme += character;
-					character = nextChar();
-				}
-				currentToken = Token.CONSTANT;
-			} else if ((currentToken =
-					testOperator()) != Token.NOT_FOUND)
-				;
-			else if ((currentToken =
-					testSeparator()) != Token.NOT_FOUND)
-				;
-			else
-				currentToken = Token.NOT_FOUND;
 		}
-		while (currentToken == Token.COMMENT ||
-				currentToken == Token.COMPILER_DIRECTIVE);
-		return currentToken;
+		if (token == Token.END_OF_FILE)
+			output.endLine(false);
+		else
+			currentToken = token;
+		return token;
+	}
+
+	//  next scans, receives or loads the next token, counting it and the
+	//    time taken if the lexer has counters.
+
+	private Token next() {
+		if (counters == null)
+			return take();
+		long started = System.nanoTime();
+		Token token = take();
+		counters.lexed(token, System.nanoTime() - started);
+		return token;
+	}
+
+	//  take returns the next token from wherever the lexer gets its
+	//    tokens, writing a scanned token to the token file if it is
+	//    recording.
+
+	private Token take() {
+		if (tokens != null)
+			return receive();
+		if (stored != null)
+			return load();
+		if (recording == null)
+			return scan();
+		scanning = true;
+		Token token;
+		try {
+			token = scan();
+		} finally {
+			scanning = false;
+		}
+		try {
+			recording.token(token, spacing, discarded + lexemeStart,
+					lexemeLength, lineAt(lexemeStart));
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+		return token;
+	}
+
+	//  scan reads the next token, comment or directive, leaving its
+	//    lexeme in the buffer and, for an operator, its spacing in the
+	//    spacing word. A character that starts no token is reported and
+	//    returned on its own.
+
+	private Token scan() {
+		Token token;
+
+		lexemeLength = 0;
+		while (ScanTables.is(character, ScanTables.WHITESPACE))
+			character = nextChar();
+
+		if (character == 0) {
+			lexemeStart = Math.max(position - 1, 0);
+			return Token.END_OF_FILE;
+		}
+		lexemeStart = position - 1;
+		if (ScanTables.is(character, ScanTables.UPPER_CASE)) {
+			while (ScanTables.is(character, ScanTables.IDENTIFIER_PART))
+				accept();
+			return Token.UPPER_CASE_IDENTIFIER;
+		} else if (ScanTables.is(character, ScanTables.IDENTIFIER_START)) {
+			while (ScanTables.is(character, ScanTables.IDENTIFIER_PART))
+				accept();
+			return Keywords.lookup(buffer, lexemeStart, lexemeLength);
+		} else if (ScanTables.is(character, ScanTables.DIGIT)) {
+			while (ScanTables.is(character, ScanTables.NUMBER_PART))
+				accept();
+			return Token.CONSTANT;
+		} else if ((token = testOperator()) != Token.NOT_FOUND)
+			return token;
+		else if ((token = testSeparator()) != Token.NOT_FOUND)
+			return token;
+		report("unexpected character '" + character + "'");
+		accept();
+		return Token.NOT_FOUND;
+	}
+
+	//  produce scans the whole input into the ring, for a lexer that
+	//    runs ahead of a formatting lexer on its own thread. Each token
+	//    carries its lexeme, spacing, offset and line.
+
+	void produce(SpscRing<Scanned> ring) {
+		Token token;
+
+		do {
+			spacing = SUPPRESS_NEITHER_SPACE;
+			token = scan();
+			Scanned scanned = ring.claim();
+			scanned.set(token, buffer, lexemeStart, lexemeLength, spacing,
+					discarded + lexemeStart, lineAt(lexemeStart));
+			ring.publish();
+		} while (token != Token.END_OF_FILE);
+	}
+
+	//  receive takes the next token from the ring in place of scan and
+	//    copies its lexeme into the buffer. The end of the input is
+	//    returned again on every later call, as scan does.
+
+	private Token receive() {
+		if (received) {
+			lexemeStart = lexemeLength = 0;
+			return Token.END_OF_FILE;
+		}
+		Scanned scanned = tokens.take();
+		Token token = scanned.token;
+		if (scanned.length > buffer.length)
+			buffer = new char[Math.max(scanned.length, buffer.length * 2)];
+		System.arraycopy(scanned.characters, 0, buffer, 0, scanned.length);
+		lexemeStart = 0;
+		lexemeLength = scanned.length;
+		spacing = scanned.spacing;
+		tokenOffset = scanned.offset;
+		tokenLine = scanned.line;
+		received = token == Token.END_OF_FILE;
+		tokens.release();
+		return token;
+	}
+
+	//  load reads the next token from the token file in place of scan.
+	//    Its lexeme is left in the token reader's buffer, where it stays
+	//    until the next token is read, and the problems recorded before
+	//    it are reported as scan found them.
+
+	private Token load() {
+		Token token;
+
+		try {
+			token = stored.next(this::record);
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+		buffer = stored.characters();
+		lexemeStart = stored.start();
+		lexemeLength = stored.length();
+		spacing = stored.spacing();
+		tokenOffset = stored.offset();
+		tokenLine = stored.line();
+		return token;
 	}
 
 	//  Puts back the last token that was gotten.
@@ -138,412 +487,255 @@ public class Lexer {
 		lastToken = currentToken;
 	}
 
-	//  Returns the lexeme corresponding to the last token.
+	//  Returns the offset in the input of the current token.
+
+	long getTokenOffset() {
+		return file != null ? discarded + lexemeStart : tokenOffset;
+	}
+
+	//  accept adds the current character to the lexeme and reads the
+	//    next one. The lexeme is already in the input buffer, so only
+	//    its length changes. Nothing is added at the end of the input.
+
+	private void accept() {
+		if (lexemeStart + lexemeLength < position)
+			lexemeLength++;
+		character = nextChar();
+	}
+
+	//  atEndOfInput returns true if the current character is the 0
+	//    that marks the end of the input rather than a null character
+	//    in it.
+
+	private boolean atEndOfInput() {
+		return character == 0 && position == limit && endOfInput;
+	}
+
+	//  lineAt returns the line number of a position in the buffer. The
+	//    newlines before the last position asked for are kept count of,
+	//    so asking for positions in order costs one pass over the input.
+
+	private long lineAt(int index) {
+		if (index >= lineMark)
+			markLines += lines(lineMark, index);
+		else
+			markLines -= lines(index, lineMark);
+		lineMark = index;
+		return markLines + 1;
+	}
+
+	private int lines(int start, int end) {
+		int lines = 0;
 
-	public String getLastLexeme() {
-		return lastLexeme;
+		for (int i = start; i < end; i++)
+			if (buffer[i] == '\n')
+				lines++;
+		return lines;
 	}
 
-//  Returns the next character in the input buffer.
-// i == char position
+	//  Returns the next character in the input buffer, refilling the
+	//    buffer when it is empty. Returns 0 at the end of the input.
+
 	private char nextChar() {
+		if (position == limit && !fill())
+			return 0;
+		return buffer[position++];
+	}
+
+	//  fill reads the next block of input into the buffer. The current
+	//    lexeme and the current character are moved to the front of the
+	//    buffer first. The buffer starts small, so short inputs use
+	//    little memory, and grows to BUFFER_SIZE once a block fills it.
+	//    Beyond that it only grows if the current lexeme fills it. Line
+	//    endings are normalized to '\n', and a final '\n' is supplied
+	//    if the input does not end with one. Returns false at the end
+	//    of the input. A read error also ends the input.
+
+	private boolean fill() {
+		if (endOfInput)
+			return false;
+		int keep = lexemeLength > 0 ? lexemeStart : Math.max(position - 1, 0);
+		boolean filled = limit == buffer.length;
+		if (keep > 0) {
+			if (lineMark < keep)
+				lineAt(keep);
+			lineMark -= keep;
+			System.arraycopy(buffer, keep, buffer, 0, limit - keep);
+			lexemeStart = Math.max(lexemeStart - keep, 0);
+			position -= keep;
+			limit -= keep;
+			discarded += keep;
+		}
+		if (limit == buffer.length)
+			buffer = Arrays.copyOf(buffer, buffer.length * 2);
+		else if (filled && buffer.length < BUFFER_SIZE)
+			buffer = Arrays.copyOf(buffer, BUFFER_SIZE);
+
+		int count;
+		FormatEvents.StallEvent event = null;
+		if (FormatEvents.AVAILABLE) {
+			event = new FormatEvents.StallEvent();
+			event.begin();
+		}
 		try {
-			if (line == null)
-				return 0;
-			if (i == line.length()) {
-				line = file.readLine();
-				i = 0;
-				return '\n';
-			}
-			return line.charAt(i++);
+			count = file.read(buffer, limit, buffer.length - limit);
 		} catch (IOException exception) {
-			return 0;
+			count = -1;
 		}
+		if (event != null)
+			event.end();
+		if (event != null && event.shouldCommit()) {
+			event.fileName = name;
+			event.characters = Math.max(count, 0);
+			event.commit();
+		}
+		if (count < 0) {
+			endOfInput = true;
+			if (atLineStart)
+				return false;
+			buffer[limit++] = '\n';
+			atLineStart = true;
+			if (counters != null)
+				counters.read(0, 1);
+			return true;
+		}
+		int start = limit;
+		limit = normalizeLineEnds(limit, limit + count);
+		if (counters != null)
+			counters.read(count, lines(start, limit));
+		return position < limit || fill();
 	}
 
-	// testOperator will return the token type if it is an operator.
-	//   Otherwise, it returns NOT_FOUND. Spacing is set for some
-	//   operators. Comments are ignored.
+	//  normalizeLineEnds replaces "\r\n" and lone '\r' line endings in
+	//    a newly read block with '\n', as BufferedReader.readLine does.
+	//    Returns the new end of the block.
+
+	private int normalizeLineEnds(int start, int end) {
+		int to = start;
+
+		for (int from = start; from < end; from++) {
+			char next = buffer[from];
+			if (next == '\r') {
+				buffer[to++] = '\n';
+				afterReturn = true;
+			} else if (next != '\n' || !afterReturn) {
+				buffer[to++] = next;
+				afterReturn = false;
+			} else
+				afterReturn = false;
+		}
+		if (to > start)
+			atLineStart = buffer[to - 1] == '\n';
+		return to;
+	}
+
+	// testOperator will return the token type if it is an operator or
+	//   a separator. Otherwise, it returns NOT_FOUND. The longest match
+	//   is found by following the operator state table, which also gives
+	//   the spacing for the token. Comments are skipped.
 
 	private Token testOperator() {
+		int state = ScanTables.START, next;
+
+		while ((next = ScanTables.next(state, character)) !=
+				ScanTables.START) {
+			accept();
+			state = next;
+		}
+		if (state == ScanTables.START)
+			return Token.NOT_FOUND;
+		spacing = ScanTables.spacing(state);
+		if (ScanTables.token(state) == Token.COMMENT)
+			skipComment();
+		return ScanTables.token(state);
+	}
+
+	// skipComment skips the rest of a comment after its opening "/*".
+	//   The lines in the comment are counted, so that a comment that is
+	//   not terminated can be reported at the line it starts on.
+
+	private void skipComment() {
 		char lastCharacter;
+		long newlines = 0;
 
-		switch (character) {
-			case '+':
-				currentLexeme += character;
-				character = nextChar();
-				if (character == '=') {
-					currentLexeme += character;
-					character = nextChar();
-					return Token.ASSIGNMENT_OPERATOR;
-				} else if (character == '+') {
-					currentLexeme += character;
-					character = nextChar();
-					return Token.PRE_OR_POST_UNARY_OPERATOR;
-				} else
-					return Token.UNARY_OR_BINARY_OPERATOR;
-			case '-':
-				currentLexeme += character;
-				character = nextChar();
-				if (character == '=') {
-					currentLexeme += character;
-					character = nextChar();
-					return Token.ASSIGNMENT_OPERATOR;
-				} else if (character == '-') {
-					currentLexeme += character;
-					character = nextChar();
-					return Token.PRE_OR_POST_UNARY_OPERATOR;
-				} else if (character == '>') {
-					currentLexeme += character;
-					character = nextChar();
-					spacing = SUPPRESS_TRAILING_SPACE |
-							SUPPRESS_LEADING_SPACE;
-					return Token.STRUCTURE_OPERATOR;
-				} else
-					return Token.UNARY_OR_BINARY_OPERATOR;
-			case '*':
-				currentLexeme += character;
-				character = nextChar();
-				if (character == '=') {
-					currentLexeme += character;
-					character = nextChar();
-					return Token.ASSIGNMENT_OPERATOR;
-				} else
-					return Token.UNARY_OR_BINARY_OPERATOR;
-			case '%':
-				currentLexeme += character;
-				character = nextChar();
-				if (character == '=') {
-					currentLexeme += character;
-					character = nextChar();
-					return Token.ASSIGNMENT_OPERATOR;
-				} else
-					return Token.BINARY_OPERATOR;
-			case '>':
-				currentLexeme += character;
-				character = nextChar();
-				if (character == '=') {
-					currentLexeme += character;
-					character = nextChar();
-					return Token.BINARY_OPERATOR;
-				} else if (character == '>') {
-					currentLexeme += character;
-					character = nextChar();
-					if (character == '=') {
-						currentLexeme += character;
-						character = nextChar();
-						return Token.ASSIGNMENT_OPERATOR;
-					} else
-						return Token.BINARY_OPERATOR;
-				} else
-					return Token.BINARY_OPERATOR;
-			case '<':
-				currentLexeme += character;
-				character = nextChar();
-				if (character == '=') {
-					currentLexeme += character;
-					character = nextChar();
-					return Token.BINARY_OPERATOR;
-				} else if (character == '<') {
-					currentLexeme += character;
-					character = nextChar();
-					if (character == '=') {
-						currentLexeme += character;
-						character = nextChar();
-						return Token.ASSIGNMENT_OPERATOR;
-					} else
-						return Token.BINARY_OPERATOR;
-				} else
-					return Token.BINARY_OPERATOR;
-			case '&':
-				currentLexeme += character;
-				character = nextChar();
-				if (character == '=') {
-					currentLexeme += character;
-					character = nextChar();
-					return Token.ASSIGNMENT_OPERATOR;
-				} else if (character == '&') {
-					currentLexeme += character;
-					character = nextChar();
-					return Token.BINARY_OPERATOR;
-				} else
-					return Token.UNARY_OR_BINARY_OPERATOR;
-			case '|':
-				currentLexeme += character;
-				character = nextChar();
-				if (character == '=') {
-					currentLexeme += character;
-					character = nextChar();
-					return Token.ASSIGNMENT_OPERATOR;
-				} else if (character == '|') {
-					currentLexeme += character;
-					character = nextChar();
-					return Token.BINARY_OPERATOR;
-				} else
-					return Token.BINARY_OPERATOR;
-			case '=':
-				currentLexeme += character;
-				character = nextChar();
-				if (character == '=') {
-					currentLexeme += character;
-					character = nextChar();
-					return Token.BINARY_OPERATOR;
-				} else
-					return Token.ASSIGNMENT_OPERATOR;
-			case '!':
-				currentLexeme += character;
-				character = nextChar();
-				if (character == '=') {
-					currentLexeme += character;
-					character = nextChar();
-					return Token.BINARY_OPERATOR;
-				} else {
-					spacing = SUPPRESS_TRAILING_SPACE;
-					return Token.UNARY_OPERATOR;
-				}
-			case '/':
-				currentLexeme += character;
-				character = nextChar();
-				if (character == '=') {
-					currentLexeme += character;
-					character = nextChar();
-					return Token.ASSIGNMENT_OPERATOR;
-				}
-				if (character == '*') {
-					currentLexeme += character;
-					character = nextChar();
-					do {
-						lastCharacter = character;
-						character = nextChar();
-					}
-					while (character != '/' || lastCharacter != '*');
-					character = nextChar();
-					return Token.COMMENT;
-				} else
-					return Token.BINARY_OPERATOR;
-			case '~':
-				currentLexeme += character;
-				character = nextChar();
-				spacing = SUPPRESS_TRAILING_SPACE;
-				return Token.UNARY_OPERATOR;
-			case '.':
-				currentLexeme += character;
-				character = nextChar();
-				spacing = SUPPRESS_TRAILING_SPACE |
-						SUPPRESS_LEADING_SPACE;
-				return Token.STRUCTURE_OPERATOR;
-			case '?':
-				currentLexeme += character;
-				character = nextChar();
-				return Token.TERNARY_OPERATOR;
-			default:
-				return Token.NOT_FOUND;
+		lexemeLength = 0;
+		do {
+			if (character == '\n')
+				newlines++;
+			lastCharacter = character;
+			character = nextChar();
+			if (atEndOfInput()) {
+				record(new Diagnostic(lineAt(limit) - newlines,
+						"unterminated comment"));
+				return;
+			}
 		}
+		while (character != '/' || lastCharacter != '*');
+		character = nextChar();
 	}
 
-	// testSeparator will return the token type if it is a separator,
-	//   otherwise, it returns NOT_FOUND. Compiler directives are
-	//   printed out as they are found.
+	// testSeparator will return the token type if it is a compiler
+	//   directive or a character or string constant, otherwise, it
+	//   returns NOT_FOUND. Compiler directives are printed out by
+	//   getNextToken.
 
 	private Token testSeparator() {
 		switch (character) {
-			case ':':
-				currentLexeme += character;
-				character = nextChar();
-				return Token.COLON;
-			case '(':
-				currentLexeme += character;
-				character = nextChar();
-				spacing = SUPPRESS_TRAILING_SPACE;
-				return Token.LEFT_PARENTHESIS;
-			case ')':
-				currentLexeme += character;
-				character = nextChar();
-				spacing = SUPPRESS_LEADING_SPACE;
-				return Token.RIGHT_PARENTHESIS;
-			case '[':
-				currentLexeme += character;
-				character = nextChar();
-				spacing = SUPPRESS_LEADING_SPACE | SUPPRESS_TRAILING_SPACE;
-				return Token.LEFT_BRACKET;
-			case ']':
-				currentLexeme += character;
-				character = nextChar();
-				spacing = SUPPRESS_LEADING_SPACE;
-				return Token.RIGHT_BRACKET;
-			case '{':
-				currentLexeme += character;
-				character = nextChar();
-				spacing = SUPPRESS_TRAILING_SPACE;
-				return Token.LEFT_BRACE;
-			case '}':
-				currentLexeme += character;
-				character = nextChar();
-				spacing = SUPPRESS_LEADING_SPACE;
-				return Token.RIGHT_BRACE;
-			case ';':
-				currentLexeme += character;
-				character = nextChar();
-				spacing = SUPPRESS_LEADING_SPACE;
-				return Token.SEMICOLON;
-			case ',':
-				currentLexeme += character;
-				character = nextChar();
-				spacing = SUPPRESS_LEADING_SPACE;
-				return Token.COMMA;
 			case '#':
-				while (character != '\n' && character != 0) {
-					currentLexeme += character;
-					character = nextChar();
-				}
-				output.endLine(false);
-				output.outputDirective(currentLexeme);
+				while (character != '\n' && character != 0)
+					accept();
 				return Token.COMPILER_DIRECTIVE;
 			case '\'':
-				currentLexeme += character;
-				character = nextChar();
-				while (character != '\'') {
-					if (character == '\\') {
-						currentLexeme += character;
-						character = nextChar();
-					}
-					currentLexeme += character;
-					character = nextChar();
-				}
-				currentLexeme += character;
-				character = nextChar();
+				skipQuoted("unterminated character constant");
 				return Token.CONSTANT;
 			case '"':
-				currentLexeme += character;
-				character = nextChar();
-				while (character != '"') {
-					if (character == '\\') {
-						currentLexeme += character;
-						character = nextChar();
-					}
-					currentLexeme += character;
-					character = nextChar();
-				}
-				currentLexeme += character;
-				character = nextChar();
+				skipQuoted("unterminated string");
 				return Token.STRING;
 			default:
 				return Token.NOT_FOUND;
 		}
 	}
 
-	// testToken will return the token type if it is a token.
-	//  Otherwise,it returns IDENTIFIER.
-
-	private Token testToken(String lexeme) {
-		switch (lexeme.charAt(0)) {
-			case 'a':
-				if (lexeme.equals("auto"))
-					return Token.SC_SPECIFIER;
-				else
-					return Token.IDENTIFIER;
-			case 'b':
-				if (lexeme.equals("break"))
-					return Token.BREAK;
-				else
-					return Token.IDENTIFIER;
-			case 'c':
-				if (lexeme.equals("case"))
-					return Token.CASE;
-				else if (lexeme.equals("char"))
-					return Token.TYPE_SPECIFIER;
-				else if (lexeme.equals("continue"))
-					return Token.CONTINUE;
-				else
-					return Token.IDENTIFIER;
-			case 'd':
-				if (lexeme.equals("default"))
-					return Token.DEFAULT;
-				else if (lexeme.equals("double"))
-					return Token.TYPE_SPECIFIER;
-				else if (lexeme.equals("do"))
-					return Token.DO;
-				else
-					return Token.IDENTIFIER;
-			case 'e':
-				if (lexeme.equals("else"))
-					return Token.ELSE;
-				else if (lexeme.equals("entry"))
-					return Token.SC_SPECIFIER;
-				else if (lexeme.equals("extern"))
-					return Token.SC_SPECIFIER;
-				else
-					return Token.IDENTIFIER;
-			case 'f':
-				if (lexeme.equals("for"))
-					return Token.FOR;
-				else if (lexeme.equals("float"))
-					return Token.TYPE_SPECIFIER;
-				else
-					return Token.IDENTIFIER;
-			case 'g':
-				if (lexeme.equals("goto"))
-					return Token.GOTO;
-				else
-					return Token.IDENTIFIER;
-			case 'i':
-				if (lexeme.equals("if"))
-					return Token.IF;
-				else if (lexeme.equals("int"))
-					return Token.TYPE_SPECIFIER;
-				else
-					return Token.IDENTIFIER;
-			case 'l':
-				if (lexeme.equals("long"))
-					return Token.TYPE_SPECIFIER;
-				else
-					return Token.IDENTIFIER;
-			case 'r':
-				if (lexeme.equals("register"))
-					return Token.SC_SPECIFIER;
-				else if (lexeme.equals("return"))
-					return Token.RETURN;
-				else
-					return Token.IDENTIFIER;
-			case 's':
-				if (lexeme.equals("short"))
-					return Token.TYPE_SPECIFIER;
-				else if (lexeme.equals("sizeof"))
-					return Token.SIZEOF;
-				else if (lexeme.equals("static"))
-					return Token.SC_SPECIFIER;
-				else if (lexeme.equals("status"))
-					return Token.STATUS;
-				else if (lexeme.equals("struct"))
-					return Token.STRUCT;
-				else if (lexeme.equals("switch"))
-					return Token.SWITCH;
-				else
-					return Token.IDENTIFIER;
-			case 't':
-				if (lexeme.equals("typedef"))
-					return Token.SC_SPECIFIER;
-				else
-					return Token.IDENTIFIER;
-			case 'u':
-				if (lexeme.equals("union"))
-					return Token.UNION;
-				else if (lexeme.equals("unsigned"))
-					return Token.TYPE_SPECIFIER;
-				else
-					return Token.IDENTIFIER;
-			case 'v':
-				if (lexeme.equals("void"))
-					return Token.TYPE_SPECIFIER;
-				else
-					return Token.IDENTIFIER;
-			case 'w':
-				if (lexeme.equals("while"))
-					return Token.WHILE;
-				else
-					return Token.IDENTIFIER;
-			default:
-				return Token.IDENTIFIER;
+	// skipQuoted accepts a character constant or string up to and
+	//   including the closing quote that matches the opening one, or up
+	//   to the end of the input, which is reported.
+
+	private void skipQuoted(String unterminated) {
+		char quote = character;
+
+		accept();
+		while (character != quote) {
+			if (atEndOfInput()) {
+				record(new Diagnostic(lineAt(lexemeStart),
+						unterminated));
+				return;
+			}
+			if (character == '\\')
+				accept();
+			accept();
+		}
+		accept();
+	}
+
+	// A Scanned token is a slot of the ring between a scanning lexer and
+	//   a formatting lexer. Its lexeme array is reused and only grows.
+
+	static final class Scanned {
+		private Token token;
+		private char[] characters = new char[LEXEME_SIZE];
+		private int length, spacing;
+		private long offset, line;
+
+		void set(Token token, char[] buffer, int start, int length,
+				int spacing, long offset, long line) {
+			if (length > characters.length)
+				characters = new char[Math.max(length, characters.length * 2)];
+			System.arraycopy(buffer, start, characters, 0, length);
+			this.token = token;
+			this.length = length;
+			this.spacing = spacing;
+			this.offset = offset;
+			this.line = line;
 		}
 	}
 }
@@ -1,16 +1,44 @@
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import javax.management.JMException;
 
 public class Main {
 
-	//  The main function for the C formatter program.  It creates
-	//     the three primary objects, an output object, a lexer object,
-	//     and a formatter object. It then calls the file method of the
-	//     formatter object to perform the formatting.
+	//  The main function for the C formatter program.  With no
+	//     arguments it asks for a single file name, creates the three
+	//     primary objects, an output object, a lexer object, and a
+	//     formatter object, and calls the file method of the formatter
+	//     object to perform the formatting. With arguments it formats
+	//     every file they name in batch mode, or with --check only
+	//     checks that their output files are current. With -p each file
+	//     is scanned, formatted and written in pipelined stages. The
+	//     argument - formats the standard input to the standard output,
+	//     for use in a pipeline. With -io, files are read and written
+	//     on their own threads, at most the given number at once. With
+	//     -k each file's tokens are kept in a token file beside it, and
+	//     later runs format from them while the file is unchanged. With
+	//     --metrics the run's counters are published through JMX while
+	//     it runs and written as JSON to a file at the end. Problems in
+	//     the input are reported on the standard error stream.
 
 	private static final BufferedReader stdin =
 			new BufferedReader(new InputStreamReader(System.in));
+	private static final String USAGE =
+			"usage: java Main [--check] [-j threads] [-io files] [-s] [-p]" +
+			" [-k] [-c cache directory] [-t seconds] [--metrics file]" +
+			" (file | directory | glob)...\n" +
+			"       java Main [-p] [-t seconds] [--metrics file] -";
+	private static final String STANDARD_INPUT = "-",
+			STANDARD_INPUT_NAME = "stdin";
 
 	public static void main(String[] args) throws IOException {
+		if (args.length > 0) {
+			System.exit(batch(args));
+			return;
+		}
+
 		String fileName;
 		System.out.print("Enter file name without .c: ");
 		fileName = stdin.readLine();
@@ -21,5 +49,180 @@ public class Main {
 		format.file();
 		lexer.close();
 		output.close();
+		for (Diagnostic diagnostic : lexer.getDiagnostics())
+			System.err.println(fileName + ".c:" + diagnostic);
+	}
+
+	//  batch parses the command line options, formats the named files
+	//     and returns the process exit status.
+
+	private static int batch(String[] args) throws IOException {
+		int parallelism = Runtime.getRuntime().availableProcessors(),
+				ioLimit = 0;
+		boolean split = false, check = false, pipelined = false,
+				tokenFiles = false;
+		String cache = null, report = null;
+		long timeLimit = Lexer.DEFAULT_TIME_LIMIT;
+		List<String> patterns = new ArrayList<>();
+
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-j") && i + 1 < args.length) {
+				try {
+					parallelism = Integer.parseInt(args[++i]);
+				} catch (NumberFormatException exception) {
+					return usage();
+				}
+			} else if (args[i].equals("-io") && i + 1 < args.length) {
+				try {
+					ioLimit = Integer.parseInt(args[++i]);
+				} catch (NumberFormatException exception) {
+					return usage();
+				}
+			} else if (args[i].equals("-t") && i + 1 < args.length) {
+				try {
+					timeLimit = Math.round(Double.parseDouble(args[++i]) * 1000);
+				} catch (NumberFormatException exception) {
+					return usage();
+				}
+			} else if (args[i].equals("-c") && i + 1 < args.length)
+				cache = args[++i];
+			else if (args[i].equals("-s"))
+				split = true;
+			else if (args[i].equals("--metrics") && i + 1 < args.length)
+				report = args[++i];
+			else if (args[i].equals("-p"))
+				pipelined = true;
+			else if (args[i].equals("-k"))
+				tokenFiles = true;
+			else if (args[i].equals("--check"))
+				check = true;
+			else if (args[i].startsWith("-") &&
+					!args[i].equals(STANDARD_INPUT))
+				return usage();
+			else
+				patterns.add(args[i]);
+		}
+		if (patterns.isEmpty() || parallelism < 1 || ioLimit < 0)
+			return usage();
+		if (patterns.contains(STANDARD_INPUT) &&
+				(patterns.size() > 1 || check || cache != null || tokenFiles))
+			return usage();
+		FormatMetrics metrics = report == null ? null : register();
+		int status;
+		if (patterns.contains(STANDARD_INPUT))
+			status = stream(pipelined, timeLimit, metrics);
+		else {
+			BatchFormatter batch = new BatchFormatter(parallelism, split);
+			batch.setCheck(check);
+			batch.setPipelined(pipelined);
+			batch.setTokenFiles(tokenFiles);
+			batch.setIoLimit(ioLimit);
+			batch.setBudget(Lexer.DEFAULT_STEP_LIMIT, timeLimit);
+			batch.setMetrics(metrics);
+			if (cache != null)
+				batch.setCache(new FormatCache(Paths.get(cache),
+						FormatCache.DEFAULT_LIMIT));
+			status = batch.run(patterns, System.out) ? 0 : 1;
+		}
+		if (metrics != null)
+			Files.write(Paths.get(report), Collections.singletonList(
+					metrics.report()), StandardCharsets.UTF_8);
+		return status;
+	}
+
+	//  register returns new metrics, published through JMX if possible.
+
+	private static FormatMetrics register() {
+		FormatMetrics metrics = new FormatMetrics();
+
+		try {
+			metrics.register();
+		} catch (JMException exception) {
+			System.err.println("metrics not published: " + exception);
+		}
+		return metrics;
+	}
+
+	//  stream formats the standard input to the standard output, with
+	//     "stdin" in the page headings, and returns the exit status. The
+	//     input is read and the output written as the formatter goes, so
+	//     memory use does not depend on the size of the input.
+
+	private static int stream(boolean pipelined, long timeLimit,
+			FormatMetrics metrics) throws IOException {
+		CountingInputStream bytes = new CountingInputStream(
+				new FileInputStream(FileDescriptor.in));
+		Reader in = new InputStreamReader(bytes);
+		Writer out = new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(FileDescriptor.out)), 64 * 1024);
+		List<Diagnostic> diagnostics;
+		long started = System.nanoTime();
+
+		try {
+			if (pipelined)
+				diagnostics = PipelinedFormatter.format(in,
+						STANDARD_INPUT_NAME, out, Lexer.DEFAULT_STEP_LIMIT,
+						timeLimit, metrics);
+			else
+				diagnostics = CFormatter.format(in, STANDARD_INPUT_NAME, out,
+						Lexer.DEFAULT_STEP_LIMIT, timeLimit, metrics);
+		} catch (FormatException exception) {
+			out.flush();
+			System.err.println(STANDARD_INPUT_NAME + ":" +
+					exception.getDiagnostic());
+			if (metrics != null)
+				metrics.fileDone(bytes.count, System.nanoTime() - started,
+						true);
+			return 1;
+		}
+		if (metrics != null)
+			metrics.fileDone(bytes.count, System.nanoTime() - started,
+					false);
+		for (Diagnostic diagnostic : diagnostics)
+			System.err.println(STANDARD_INPUT_NAME + ":" + diagnostic);
+		return diagnostics.isEmpty() ? 0 : 1;
+	}
+
+	//  usage prints the command line syntax and returns the exit status
+	//     for invalid arguments.
+
+	private static int usage() {
+		System.err.println(USAGE);
+		return 2;
+	}
+
+	//  A CountingInputStream passes bytes on from another stream,
+	//     counting them.
+
+	private static final class CountingInputStream extends FilterInputStream {
+		private long count;
+
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int next = in.read();
+			if (next >= 0)
+				count++;
+			return next;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length)
+				throws IOException {
+			int read = in.read(bytes, offset, length);
+			if (read > 0)
+				count += read;
+			return read;
+		}
+
+		@Override
+		public long skip(long length) throws IOException {
+			long skipped = in.skip(length);
+			count += skipped;
+			return skipped;
+		}
 	}
-}
\ No newline at end of file
+}
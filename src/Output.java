@@ -1,55 +1,180 @@
 // The Output class controls the formation of lines and pages in the
 //   output. It also provides explicit functions for controlling the
-//   indentation and forcing new lines and pages.
+//   indentation and forcing new lines and pages. Lines are assembled in
+//   a reusable character buffer and written as character ranges, with
+//   the indentation taken from a shared array of spaces.
 
 import java.io.*;
+import java.nio.file.Paths;
+import java.util.Arrays;
 
 public class Output {
-	private static final int INDENT_INCREMENT = 4, LEFT_MARGIN = 0,
-			LINES_PER_PAGE = 56, HEADING_LENGTH = 70,
-			CHARACTERS_PER_LINE = 78;
+	static final int INDENT_INCREMENT = 4, LEFT_MARGIN = 0;
+	private static final int LINES_PER_PAGE = 56, HEADING_LENGTH = 70,
+			CHARACTERS_PER_LINE = 78, MAXIMUM_SPACES = 4096;
 	private PrintWriter file;
+	private UpdateStream target;
 	private int linesOnPage;
 	private int pageNumber;
 	private int indentation;
-	private String buffer = "";
-	private String heading;
+	private char[] buffer = new char[CHARACTERS_PER_LINE + 2];
+	private int bufferLength;
+	private boolean lineStarted;
+	private char[] spaces = new char[LEFT_MARGIN + 8 * INDENT_INCREMENT];
+	private String name, heading;
+	private FormatMetrics.Counters counters;
 
 	// The constructor initializes the private instance variables.
 	//   It constructs a page heading containing the input file name.
+	//   The output file is only replaced, when the output is closed, if
+	//   its contents have changed.
 
 	public Output(String fileName)
 			throws FileNotFoundException, IOException {
-		file = new PrintWriter(new FileWriter(fileName + "_.c"));
+		this(new UpdateStream(Paths.get(fileName + "_.c")), fileName);
+	}
+
+	private Output(UpdateStream target, String fileName) {
+		this(new OutputStreamWriter(target), fileName);
+		this.target = target;
+	}
+
+	// The constructor writes to a writer instead of a file. The file
+	//   name only appears in the page heading.
+
+	public Output(Writer writer, String fileName) {
+		StringBuilder heading = new StringBuilder(fileName);
+
+		file = new PrintWriter(writer);
+		name = fileName;
 		linesOnPage = LINES_PER_PAGE;
 		pageNumber = 1;
 		indentation = LEFT_MARGIN;
-		heading = fileName;
-		for (int i = 0; i < HEADING_LENGTH - fileName.length(); i++)
-			heading += ' ';
+		while (heading.length() < HEADING_LENGTH)
+			heading.append(' ');
+		this.heading = heading.toString();
+		Arrays.fill(spaces, ' ');
 	}
 
-	// Closes the output file.
+	// setCounters sets the counters of the lines and pages written and
+	//   the time taken to write them, or null for none.
+
+	void setCounters(FormatMetrics.Counters counters) {
+		this.counters = counters;
+	}
+
+	// name returns the file name in the page headings.
+
+	String name() {
+		return name;
+	}
+
+	// layout returns the layout constants, which determine the formatted
+	//   output along with the input.
+
+	static String layout() {
+		return INDENT_INCREMENT + "," + LEFT_MARGIN + "," + LINES_PER_PAGE +
+				"," + HEADING_LENGTH + "," + CHARACTERS_PER_LINE;
+	}
+
+	// Closes the output file, first replacing the file written to by the
+	//   constructor if the output differs from it.
 
 	public void close() {
-		file.close();
+		FormatEvents.FlushEvent event = flushing();
+
+		try {
+			file.flush();
+			if (target != null && !file.checkError())
+				target.commit();
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		} finally {
+			file.close();
+			flushed(event);
+		}
+	}
+
+	// Flushes the output without closing the underlying writer and
+	//   reports any write that has failed.
+
+	public void flush() throws IOException {
+		FormatEvents.FlushEvent event = flushing();
+		boolean failed = file.checkError();
+
+		flushed(event);
+		if (failed)
+			throw new IOException("error writing formatted output");
+	}
+
+	// flushing starts a flight recorder event for a flush, if events are
+	//   available, and flushed ends it.
+
+	private static FormatEvents.FlushEvent flushing() {
+		if (!FormatEvents.AVAILABLE)
+			return null;
+		FormatEvents.FlushEvent event = new FormatEvents.FlushEvent();
+		event.begin();
+		return event;
+	}
+
+	private void flushed(FormatEvents.FlushEvent event) {
+		if (event == null)
+			return;
+		event.end();
+		if (!event.shouldCommit())
+			return;
+		event.fileName = name;
+		event.pages = pageNumber - 1;
+		event.commit();
 	}
 
 	// outputToken outputs the token string, adjusting spacing
 	//   specified by the spacing word.
 
 	public void outputToken(String token, int spacing) {
-		if (buffer.length() + token.length() > CHARACTERS_PER_LINE) {
-			outputLine(buffer);
-			buffer = "";
+		int length = token.length();
+
+		startToken(length, spacing);
+		token.getChars(0, length, buffer, bufferLength);
+		endToken(length, spacing);
+	}
+
+	// outputToken outputs a token held in a range of a character array.
+
+	public void outputToken(char[] token, int start, int length,
+			int spacing) {
+		startToken(length, spacing);
+		System.arraycopy(token, start, buffer, bufferLength, length);
+		endToken(length, spacing);
+	}
+
+	// startToken ends the line if the token will not fit on it, removes
+	//   the trailing space if leading space is suppressed, and makes room
+	//   in the buffer for the token and a space.
+
+	private void startToken(int length, int spacing) {
+		if (bufferLength + length > CHARACTERS_PER_LINE) {
+			outputLine(buffer, 0, bufferLength);
+			bufferLength = 0;
 		}
 		if ((spacing & Lexer.SUPPRESS_LEADING_SPACE) != 0)
-			if (buffer.length() > 0 &&
-					buffer.charAt(buffer.length() - 1) == ' ')
-				buffer = buffer.substring(0, buffer.length() - 1);
-		buffer += token;
+			if (bufferLength > 0 && buffer[bufferLength - 1] == ' ')
+				bufferLength--;
+		if (bufferLength + length + 1 > buffer.length)
+			buffer = Arrays.copyOf(buffer,
+					Math.max(bufferLength + length + 1, buffer.length * 2));
+	}
+
+	// endToken adds the token copied into the buffer to the line, and a
+	//   space unless trailing space is suppressed. Once a token has been
+	//   output the line is written by endLine, even if it is empty.
+
+	private void endToken(int length, int spacing) {
+		bufferLength += length;
 		if ((spacing & Lexer.SUPPRESS_TRAILING_SPACE) == 0)
-			buffer += ' ';
+			buffer[bufferLength++] = ' ';
+		lineStarted = true;
 	}
 
 	// outputDirective prints out a compiler directive starting at the
@@ -59,6 +184,10 @@ public class Output {
 		outputLine(directive);
 	}
 
+	public void outputDirective(char[] directive, int start, int length) {
+		outputLine(directive, start, length);
+	}
+
 	// outputError prints out error messages.
 
 	public void outputError(String error) {
@@ -83,15 +212,16 @@ public class Output {
 	public void endLine(boolean forceNewPage) {
 		if (forceNewPage && (linesOnPage > 0))
 			newPage();
-		if (buffer != "")
-			outputLine(buffer);
-		buffer = "";
+		if (lineStarted)
+			outputLine(buffer, 0, bufferLength);
+		bufferLength = 0;
+		lineStarted = false;
 	}
 
 	// skipLine skips a line.
 
 	public void skipLine() {
-		outputLine("");
+		outputLine(buffer, 0, 0);
 	}
 
 	// endPage sets linesOnPage to force a call to newPage.
@@ -103,8 +233,13 @@ public class Output {
 	// newPage does a form feed and prints a new page heading.
 
 	public void newPage() {
-		file.println("\f" + heading + "PAGE " + pageNumber++);
+		file.write('\f');
+		file.write(heading);
+		file.write("PAGE ");
+		file.println(pageNumber++);
 		linesOnPage = 0;
+		if (counters != null)
+			counters.page();
 	}
 
 	// outputLine fills up the number of spaces in the margin
@@ -112,14 +247,45 @@ public class Output {
 	//   It then increments lines per page.
 
 	public void outputLine(String line) {
-		String buffer = "";
+		long started = counters == null ? 0 : System.nanoTime();
+
+		startLine();
+		file.write(line);
+		file.println();
+		linesOnPage++;
+		if (counters != null)
+			counters.wrote(started);
+	}
+
+	public void outputLine(char[] line, int start, int length) {
+		long started = counters == null ? 0 : System.nanoTime();
+
+		startLine();
+		file.write(line, start, length);
+		file.println();
+		linesOnPage++;
+		if (counters != null)
+			counters.wrote(started);
+	}
+
+	// startLine starts a new page if the current one is full and writes
+	//   the margin for the current indentation. The array of spaces only
+	//   grows when a deeper indentation is first seen, up to
+	//   MAXIMUM_SPACES; deeper margins are written in pieces.
+
+	private void startLine() {
+		int margin = LEFT_MARGIN + indentation;
 
 		if (linesOnPage >= LINES_PER_PAGE)
 			newPage();
-		for (int space = 0; space < LEFT_MARGIN + indentation; space++)
-			buffer += ' ';
-		buffer += line;
-		file.println(buffer);
-		linesOnPage++;
+		if (margin > spaces.length && spaces.length < MAXIMUM_SPACES) {
+			spaces = new char[Math.min(Math.max(margin, spaces.length * 2),
+					MAXIMUM_SPACES)];
+			Arrays.fill(spaces, ' ');
+		}
+		for (int piece; margin > 0; margin -= piece) {
+			piece = Math.min(margin, spaces.length);
+			file.write(spaces, 0, piece);
+		}
 	}
-}
\ No newline at end of file
+}
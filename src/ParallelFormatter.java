@@ -0,0 +1,246 @@
+// The ParallelFormatter class formats one large source file on several
+//   threads. A quick scan of the text finds the ends of top-level
+//   function bodies about once every CHUNK_SIZE characters, and the
+//   chunks between these split points are formatted concurrently, each
+//   into its own buffer by a lexer that starts at the chunk's first
+//   token. A chunk is formatted until Format reaches the start of a
+//   top-level unit, following a function body, at or beyond the next
+//   split point. There the formatter is in the same state as it would
+//   be formatting the whole file: so if the chunk ends exactly on the
+//   split point, the next chunk follows it, and otherwise a chunk is
+//   formatted from where it did end. The chunks are written in order
+//   with their pages renumbered, so the output is identical to that of
+//   formatting the file sequentially. A time budget applies to the file
+//   as a whole, and a step budget to each chunk.
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class ParallelFormatter {
+	private static final int CHUNK_SIZE = 1 << 20;
+	private final ForkJoinPool pool;
+	private final int window;
+	private long stepLimit = Lexer.DEFAULT_STEP_LIMIT,
+			timeLimit = Lexer.DEFAULT_TIME_LIMIT;
+	private FormatMetrics metrics;
+
+	// The constructor sets the pool that formats the chunks. At most two
+	//   chunks per thread are formatted ahead of the one being written.
+
+	public ParallelFormatter(ForkJoinPool pool) {
+		this.pool = pool;
+		window = 2 * pool.getParallelism();
+	}
+
+	// setBudget sets the number of tokens each chunk may read and the
+	//   number of milliseconds the file may take, zero for no limit,
+	//   before formatting is abandoned with a FormatException.
+
+	public void setBudget(long stepLimit, long timeLimit) {
+		this.stepLimit = stepLimit;
+		this.timeLimit = timeLimit;
+	}
+
+	// setMetrics sets the metrics that the chunks written are added to, or
+	//   null for none.
+
+	public void setMetrics(FormatMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	// format formats the text and writes it to the destination, which is
+	//   flushed but not closed. The name appears in the page headings. It
+	//   returns the problems found in the text.
+
+	public List<Diagnostic> format(char[] text, int length, String name,
+			Writer destination) throws IOException {
+		FormatEvents.FileEvent event = FormatEvents.fileStarted();
+		String outcome = "failed";
+		long deadline = System.nanoTime() +
+				TimeUnit.MILLISECONDS.toNanos(timeLimit);
+		text = normalizeLineEnds(text, length);
+		length = text.length;
+		int[] splits = splitPoints(text, length);
+		Chunk[] chunks = new Chunk[splits.length];
+		int pages = 0, indentation = 0, submitted = 0, passed = 0;
+		long start = 0;
+		List<Diagnostic> diagnostics = new ArrayList<>();
+		long unreported = 0, unreportedLine = 0;
+
+		try {
+			while (true) {
+				int next = nextSplit(splits, start);
+				for (; submitted < Math.min(next + window, splits.length);
+					 submitted++) {
+					chunks[submitted] = new Chunk(text, length, name,
+							splits[submitted], stopOffset(splits, submitted + 1))
+							.budget(stepLimit, deadline, timeLimit > 0)
+							.metrics(metrics);
+					pool.execute(chunks[submitted]);
+				}
+				Chunk chunk;
+				if (start == splits[next - 1])
+					chunk = chunks[next - 1].join();
+				else
+					chunk = new Chunk(text, length, name, start,
+							stopOffset(splits, next))
+							.budget(stepLimit, deadline, timeLimit > 0)
+							.metrics(metrics).invoke();
+				for (; passed < next; passed++)
+					cancel(chunks, passed);
+				chunk.writeTo(destination, pages, indentation);
+				if (metrics != null)
+					metrics.add(chunk.counters());
+				for (Diagnostic diagnostic : chunk.diagnostics())
+					if (diagnostics.size() < Lexer.MAXIMUM_DIAGNOSTICS)
+						diagnostics.add(diagnostic);
+					else {
+						unreported++;
+						unreportedLine = diagnostic.getLine();
+					}
+				if (chunk.unreported() > 0) {
+					unreported += chunk.unreported();
+					unreportedLine = chunk.unreportedLine();
+				}
+				pages += chunk.pages();
+				indentation += chunk.indentation();
+				start = chunk.end();
+				if (start == length)
+					break;
+			}
+			outcome = "formatted";
+		} catch (FormatException exception) {
+			outcome = "abandoned";
+			throw exception;
+		} finally {
+			for (; passed < chunks.length; passed++)
+				cancel(chunks, passed);
+			FormatEvents.fileEnded(event, name, start,
+					diagnostics.size() + (unreported > 0 ? 1 : 0), outcome);
+		}
+		destination.flush();
+		return Lexer.limit(diagnostics, unreported, unreportedLine);
+	}
+
+	// normalizeLineEnds returns the text with "\r\n" and lone '\r' line
+	//   endings replaced by '\n', as the lexer sees it.
+
+	static char[] normalizeLineEnds(char[] text, int length) {
+		int to = 0;
+		char[] normalized = null;
+
+		for (int from = 0; from < length; from++) {
+			char next = text[from];
+			if (next == '\r' && normalized == null) {
+				normalized = Arrays.copyOf(text, length);
+				to = from;
+			}
+			if (normalized != null) {
+				if (next == '\r')
+					normalized[to++] = '\n';
+				else if (next != '\n' || text[from - 1] != '\r')
+					normalized[to++] = next;
+			}
+		}
+		if (normalized == null)
+			return length == text.length ? text : Arrays.copyOf(text, length);
+		return Arrays.copyOf(normalized, to);
+	}
+
+	// splitPoints scans the text as the lexer would, skipping comments,
+	//   strings, character constants and directives, and returns the
+	//   offset 0 followed by the first token after a closing brace at the
+	//   top level about every CHUNK_SIZE characters. Tokens that cannot
+	//   start a unit, such as the semicolon after a structure, are passed
+	//   over. The scan stops where the lexer would stop, at a null
+	//   character or an unterminated comment.
+
+	static int[] splitPoints(char[] text, int length) {
+		int[] splits = new int[16];
+		int count = 1, depth = 0, target = CHUNK_SIZE;
+
+		for (int i = 0; i < length; ) {
+			char c = text[i];
+			if (c == 0)
+				break;
+			if (c == '/' && i + 1 < length && text[i + 1] == '*') {
+				if ((i = skipComment(text, length, i)) < 0)
+					break;
+			} else if (c == '"' || c == '\'') {
+				for (i++; i < length && text[i] != c; i++)
+					if (text[i] == '\\')
+						i++;
+				i++;
+			} else if (c == '#') {
+				while (i < length && text[i] != '\n')
+					i++;
+			} else {
+				if (c == '{')
+					depth++;
+				else if (c == '}' && --depth == 0 && i >= target) {
+					int split = nextToken(text, length, i + 1);
+					if (split > 0) {
+						if (count == splits.length)
+							splits = Arrays.copyOf(splits, count * 2);
+						splits[count++] = split;
+						target = split + CHUNK_SIZE;
+					}
+				}
+				i++;
+			}
+		}
+		return Arrays.copyOf(splits, count);
+	}
+
+	// skipComment returns the offset after the comment starting at the
+	//   offset, or -1 if it is not terminated.
+
+	private static int skipComment(char[] text, int length, int start) {
+		for (int i = start + 3; i < length; i++)
+			if (text[i] == '/' && text[i - 1] == '*')
+				return i + 1;
+		return -1;
+	}
+
+	// nextToken returns the offset of the first token at or after the
+	//   offset, or -1 if there is none or it cannot start a unit.
+
+	private static int nextToken(char[] text, int length, int i) {
+		while (i < length) {
+			char c = text[i];
+			if (ScanTables.is(c, ScanTables.WHITESPACE))
+				i++;
+			else if (c == '/' && i + 1 < length && text[i + 1] == '*') {
+				if ((i = skipComment(text, length, i)) < 0)
+					return -1;
+			} else if (c == '#')
+				while (i < length && text[i] != '\n')
+					i++;
+			else if (c == 0 || c == ';' || c == ',' || c == '=')
+				return -1;
+			else
+				return i;
+		}
+		return -1;
+	}
+
+	// nextSplit returns the index of the first split point after the
+	//   offset, or the number of split points if there is none.
+
+	private static int nextSplit(int[] splits, long offset) {
+		int index = Arrays.binarySearch(splits, (int) offset);
+		return index >= 0 ? index + 1 : -index - 1;
+	}
+
+	private static long stopOffset(int[] splits, int index) {
+		return index < splits.length ? splits[index] : Long.MAX_VALUE;
+	}
+
+	private static void cancel(Chunk[] chunks, int index) {
+		if (chunks[index] != null) {
+			chunks[index].abandon();
+			chunks[index] = null;
+		}
+	}
+}
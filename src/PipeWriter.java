@@ -0,0 +1,153 @@
+// The PipeWriter class is a writer that hands what is written to it to
+//   another thread, which writes it to the destination. Characters are
+//   gathered into blocks passed through an SpscRing, so the writing
+//   thread only copies them and waits only when the ring is full. flush
+//   waits until every block has been written and then flushes the
+//   destination. A failure of the destination is thrown by the next
+//   write, flush or close. Closing stops the thread but leaves the
+//   destination open.
+
+import java.io.*;
+import java.util.concurrent.*;
+
+final class PipeWriter extends Writer {
+	private static final int BLOCK_SIZE = 16 * 1024, BLOCKS = 8;
+	private final SpscRing<Block> blocks = new SpscRing<>(BLOCKS, Block::new);
+	private final Writer destination;
+	private final Future<?> draining;
+	private Block block;
+	private boolean closed;
+	private volatile Exception failure;
+
+	// The constructor starts writing to the destination on a thread of
+	//   the executor.
+
+	PipeWriter(Writer destination, ExecutorService executor) {
+		this.destination = destination;
+		draining = executor.submit(this::drain);
+	}
+
+	@Override
+	public void write(char[] characters, int offset, int length)
+			throws IOException {
+		while (length > 0) {
+			int run = Math.min(length, space());
+			System.arraycopy(characters, offset, block.characters,
+					block.count, run);
+			block.count += run;
+			offset += run;
+			length -= run;
+		}
+	}
+
+	@Override
+	public void write(String string, int offset, int length)
+			throws IOException {
+		while (length > 0) {
+			int run = Math.min(length, space());
+			string.getChars(offset, offset + run, block.characters,
+					block.count);
+			block.count += run;
+			offset += run;
+			length -= run;
+		}
+	}
+
+	@Override
+	public void write(int character) throws IOException {
+		space();
+		block.characters[block.count++] = (char) character;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (closed)
+			return;
+		send(false);
+		try {
+			for (int spins = 0; !blocks.isEmpty(); spins++)
+				blocks.pause(spins);
+		} catch (UncheckedIOException exception) {
+			throw exception.getCause();
+		}
+		destination.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed)
+			return;
+		send(true);
+		closed = true;
+		try {
+			draining.get();
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (ExecutionException exception) {
+			throw new IOException(exception.getCause());
+		}
+		if (failure instanceof IOException)
+			throw (IOException) failure;
+		if (failure instanceof RuntimeException)
+			throw (RuntimeException) failure;
+	}
+
+	// space returns the room left in the current block, sending it and
+	//   starting another if it is full.
+
+	private int space() throws IOException {
+		if (closed)
+			throw new IOException("writer closed");
+		if (block != null && block.count == BLOCK_SIZE)
+			send(false);
+		if (block == null) {
+			try {
+				block = blocks.claim();
+			} catch (UncheckedIOException exception) {
+				throw exception.getCause();
+			}
+			block.count = 0;
+			block.last = false;
+		}
+		return BLOCK_SIZE - block.count;
+	}
+
+	// send passes the current block to the writing thread. The last block
+	//   is sent even if it is empty, to stop the thread.
+
+	private void send(boolean last) throws IOException {
+		if (block == null && last)
+			space();
+		if (block == null)
+			return;
+		block.last = last;
+		block = null;
+		blocks.publish();
+	}
+
+	// drain writes the blocks to the destination until the last one,
+	//   closing the ring with the failure if the destination fails.
+
+	private void drain() {
+		try {
+			while (true) {
+				Block next = blocks.take();
+				destination.write(next.characters, 0, next.count);
+				boolean last = next.last;
+				blocks.release();
+				if (last)
+					return;
+			}
+		} catch (IOException | RuntimeException exception) {
+			failure = exception;
+			blocks.close(exception);
+		}
+	}
+
+	private static final class Block {
+		private final char[] characters = new char[BLOCK_SIZE];
+		private int count;
+		private boolean last;
+	}
+}
@@ -0,0 +1,116 @@
+// The PipelinedFormatter class formats a source in three stages that
+//   run at the same time: a Lexer scans the source on one thread and
+//   passes its tokens through an SpscRing to a Lexer that feeds Format
+//   on the calling thread, and a PipeWriter writes the finished lines to
+//   the destination on a third. Reading and scanning the input, laying
+//   it out and writing the output overlap, and since the rings are
+//   bounded the memory in flight does not grow with the source. The
+//   output and the diagnostics are the same as those of CFormatter.
+
+import java.io.*;
+import java.util.List;
+import java.util.concurrent.*;
+
+public final class PipelinedFormatter {
+	private static final int TOKENS = 4096;
+	private static final ExecutorService stages =
+			Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "format-stage");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+	private PipelinedFormatter() {
+	}
+
+	// format reads the source from a reader and writes the formatted
+	//   text to a writer. Neither is closed; the writer is flushed. It
+	//   returns the problems found in the source.
+
+	public static List<Diagnostic> format(Reader source, String name,
+			Writer destination) throws IOException {
+		return format(source, name, destination, Lexer.DEFAULT_STEP_LIMIT,
+				Lexer.DEFAULT_TIME_LIMIT);
+	}
+
+	// format formats the source within a budget of tokens read and
+	//   milliseconds taken, zero for no time limit. A source that exceeds
+	//   it throws a FormatException. Output written before a failure is
+	//   still passed to the destination.
+
+	public static List<Diagnostic> format(Reader source, String name,
+			Writer destination, long stepLimit, long timeLimit)
+			throws IOException {
+		return format(source, name, destination, stepLimit, timeLimit, null);
+	}
+
+	// format formats the source within a budget, adding what it reads,
+	//   writes and the time it takes to the metrics, if they are not null.
+	//   Time the formatting thread waits for tokens counts as lexing.
+
+	public static List<Diagnostic> format(Reader source, String name,
+			Writer destination, long stepLimit, long timeLimit,
+			FormatMetrics metrics) throws IOException {
+		FormatEvents.FileEvent event = FormatEvents.fileStarted();
+		String outcome = "failed";
+		FormatMetrics.Counters counters =
+				metrics == null ? null : metrics.counters(),
+				scanned = metrics == null ? null : metrics.counters();
+		SpscRing<Lexer.Scanned> tokens =
+				new SpscRing<>(TOKENS, Lexer.Scanned::new);
+		Lexer scanner = new Lexer(source, name);
+		scanner.setCounters(scanned);
+		Future<?> scanning = stages.submit(() -> {
+			try {
+				scanner.produce(tokens);
+			} catch (RuntimeException | Error failure) {
+				tokens.close(failure);
+			}
+		});
+		PipeWriter pipe = new PipeWriter(destination, stages);
+		Output output = new Output(pipe, name);
+		Lexer lexer = new Lexer(tokens, scanner, output);
+
+		try {
+			Format format = new Format(lexer, output);
+			lexer.setStepLimit(stepLimit);
+			lexer.setTimeLimit(timeLimit);
+			lexer.setCounters(counters);
+			output.setCounters(counters);
+			format.file();
+			output.flush();
+			outcome = "formatted";
+		} catch (FormatException exception) {
+			outcome = "abandoned";
+			throw exception;
+		} finally {
+			tokens.close();
+			try {
+				pipe.close();
+			} finally {
+				join(scanning);
+				if (counters != null) {
+					counters.finish();
+					metrics.add(counters);
+					metrics.add(scanned);
+				}
+				FormatEvents.fileEnded(event, name, lexer.getTokenOffset(),
+						lexer.getDiagnostics().size(), outcome);
+			}
+		}
+		return lexer.getDiagnostics();
+	}
+
+	// join waits for a stage to stop.
+
+	private static void join(Future<?> stage) throws IOException {
+		try {
+			stage.get();
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (ExecutionException exception) {
+			throw new IOException(exception.getCause());
+		}
+	}
+}
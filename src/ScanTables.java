@@ -0,0 +1,143 @@
+// The ScanTables class holds the tables that drive the scanning loops
+//   of the lexer. A table of character classes covers ASCII, falling back
+//   to the Character methods for other characters. A state table,
+//   generated from the list of operators and separators below, matches
+//   the longest operator at the current character.
+
+final class ScanTables {
+	static final int WHITESPACE = 1, UPPER_CASE = 2, IDENTIFIER_START = 4,
+			DIGIT = 8, IDENTIFIER_PART = 16, NUMBER_PART = 32;
+	static final int START = 0;
+	private static final int ASCII = 128, MAXIMUM_STATES = 128;
+	private static final byte[] classes = new byte[ASCII];
+	private static final byte[] transitions =
+			new byte[MAXIMUM_STATES * ASCII];
+	private static final Token[] tokens = new Token[MAXIMUM_STATES];
+	private static final int[] spacings = new int[MAXIMUM_STATES];
+	private static int states = START + 1;
+
+	static {
+		final int NEITHER = Lexer.SUPPRESS_NEITHER_SPACE,
+				LEADING = Lexer.SUPPRESS_LEADING_SPACE,
+				TRAILING = Lexer.SUPPRESS_TRAILING_SPACE;
+
+		for (char c = 0; c < ASCII; c++)
+			classes[c] = (byte) classify(c);
+
+		operator("+", Token.UNARY_OR_BINARY_OPERATOR, NEITHER);
+		operator("+=", Token.ASSIGNMENT_OPERATOR, NEITHER);
+		operator("++", Token.PRE_OR_POST_UNARY_OPERATOR, NEITHER);
+		operator("-", Token.UNARY_OR_BINARY_OPERATOR, NEITHER);
+		operator("-=", Token.ASSIGNMENT_OPERATOR, NEITHER);
+		operator("--", Token.PRE_OR_POST_UNARY_OPERATOR, NEITHER);
+		operator("->", Token.STRUCTURE_OPERATOR, TRAILING | LEADING);
+		operator("*", Token.UNARY_OR_BINARY_OPERATOR, NEITHER);
+		operator("*=", Token.ASSIGNMENT_OPERATOR, NEITHER);
+		operator("%", Token.BINARY_OPERATOR, NEITHER);
+		operator("%=", Token.ASSIGNMENT_OPERATOR, NEITHER);
+		operator(">", Token.BINARY_OPERATOR, NEITHER);
+		operator(">=", Token.BINARY_OPERATOR, NEITHER);
+		operator(">>", Token.BINARY_OPERATOR, NEITHER);
+		operator(">>=", Token.ASSIGNMENT_OPERATOR, NEITHER);
+		operator("<", Token.BINARY_OPERATOR, NEITHER);
+		operator("<=", Token.BINARY_OPERATOR, NEITHER);
+		operator("<<", Token.BINARY_OPERATOR, NEITHER);
+		operator("<<=", Token.ASSIGNMENT_OPERATOR, NEITHER);
+		operator("&", Token.UNARY_OR_BINARY_OPERATOR, NEITHER);
+		operator("&=", Token.ASSIGNMENT_OPERATOR, NEITHER);
+		operator("&&", Token.BINARY_OPERATOR, NEITHER);
+		operator("|", Token.BINARY_OPERATOR, NEITHER);
+		operator("|=", Token.ASSIGNMENT_OPERATOR, NEITHER);
+		operator("||", Token.BINARY_OPERATOR, NEITHER);
+		operator("=", Token.ASSIGNMENT_OPERATOR, NEITHER);
+		operator("==", Token.BINARY_OPERATOR, NEITHER);
+		operator("!", Token.UNARY_OPERATOR, TRAILING);
+		operator("!=", Token.BINARY_OPERATOR, NEITHER);
+		operator("/", Token.BINARY_OPERATOR, NEITHER);
+		operator("/=", Token.ASSIGNMENT_OPERATOR, NEITHER);
+		operator("/*", Token.COMMENT, NEITHER);
+		operator("~", Token.UNARY_OPERATOR, TRAILING);
+		operator(".", Token.STRUCTURE_OPERATOR, TRAILING | LEADING);
+		operator("?", Token.TERNARY_OPERATOR, NEITHER);
+		operator(":", Token.COLON, NEITHER);
+		operator("(", Token.LEFT_PARENTHESIS, TRAILING);
+		operator(")", Token.RIGHT_PARENTHESIS, LEADING);
+		operator("[", Token.LEFT_BRACKET, LEADING | TRAILING);
+		operator("]", Token.RIGHT_BRACKET, LEADING);
+		operator("{", Token.LEFT_BRACE, TRAILING);
+		operator("}", Token.RIGHT_BRACE, LEADING);
+		operator(";", Token.SEMICOLON, LEADING);
+		operator(",", Token.COMMA, LEADING);
+	}
+
+	private ScanTables() {
+	}
+
+	// is returns true if the character belongs to any of the classes in
+	//   the mask.
+
+	static boolean is(char c, int classMask) {
+		return ((c < ASCII ? classes[c] : classify(c)) & classMask) != 0;
+	}
+
+	// next returns the state reached from the state on the character, or
+	//   START if no operator continues with it.
+
+	static int next(int state, char c) {
+		return c < ASCII ? transitions[state * ASCII + c] : START;
+	}
+
+	// token returns the token recognized in a state other than START.
+
+	static Token token(int state) {
+		return tokens[state];
+	}
+
+	// spacing returns the spacing bits of the token recognized in a
+	//   state other than START.
+
+	static int spacing(int state) {
+		return spacings[state];
+	}
+
+	// classify computes the classes of a character.
+
+	private static int classify(char c) {
+		int classes = 0;
+
+		if (Character.isWhitespace(c))
+			classes |= WHITESPACE;
+		if (Character.isUpperCase(c))
+			classes |= UPPER_CASE;
+		if (Character.isLetter(c) || c == '_')
+			classes |= IDENTIFIER_START;
+		if (Character.isDigit(c))
+			classes |= DIGIT;
+		if (Character.isLetter(c) || Character.isDigit(c) || c == '_')
+			classes |= IDENTIFIER_PART;
+		if (Character.isLetter(c) || Character.isDigit(c) || c == '.')
+			classes |= NUMBER_PART;
+		return classes;
+	}
+
+	// operator adds a state for the lexeme to the state table. Every
+	//   proper prefix of the lexeme must already have been added, so
+	//   every state recognizes a token.
+
+	private static void operator(String lexeme, Token token, int spacing) {
+		int state = START, last = lexeme.length() - 1;
+
+		for (int i = 0; i < last; i++) {
+			state = transitions[state * ASCII + lexeme.charAt(i)];
+			if (state == START)
+				throw new IllegalStateException(
+						"operator prefix missing: " + lexeme);
+		}
+		if (states == MAXIMUM_STATES)
+			throw new IllegalStateException("too many operators");
+		transitions[state * ASCII + lexeme.charAt(last)] = (byte) states;
+		tokens[states] = token;
+		spacings[states] = spacing;
+		states++;
+	}
+}
@@ -0,0 +1,121 @@
+// The SpscRing class is a bounded ring of reusable slots passed from
+//   one producer thread to one consumer thread. The producer claims a
+//   free slot, fills it and publishes it; the consumer takes the next
+//   published slot and releases it when it is done with it, after which
+//   the producer may fill it again. Neither side allocates or locks.
+//   Each side waits when the ring is full or empty, first yielding and
+//   then parking briefly, so the memory in flight is bounded by the
+//   ring and a stalled stage holds back the one feeding it. Either side
+//   may close the ring, optionally with the failure that stopped it;
+//   the other side then stops when it next has to wait.
+
+import java.io.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+final class SpscRing<T> {
+	private static final int SPINS = 32;
+	private static final long PARK_NANOS = 20_000;
+	private final Object[] slots;
+	private final int mask;
+	private final AtomicLong head = new AtomicLong(), tail = new AtomicLong();
+	private long cachedHead, cachedTail;
+	private volatile boolean closed;
+	private volatile Throwable failure;
+
+	// The constructor fills the ring with slots from the factory. The
+	//   capacity is rounded up to a power of two.
+
+	SpscRing(int capacity, Supplier<T> factory) {
+		int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+		slots = new Object[size];
+		mask = size - 1;
+		for (int i = 0; i < size; i++)
+			slots[i] = factory.get();
+	}
+
+	// claim returns the next slot for the producer to fill, waiting for
+	//   the consumer to release one if the ring is full.
+
+	T claim() {
+		long next = tail.get();
+		for (int spins = 0; next - cachedHead == slots.length; spins++) {
+			cachedHead = head.get();
+			if (next - cachedHead == slots.length)
+				pause(spins);
+		}
+		return slot(next);
+	}
+
+	// publish passes the claimed slot to the consumer.
+
+	void publish() {
+		tail.lazySet(tail.get() + 1);
+	}
+
+	// take returns the next published slot, waiting for the producer if
+	//   there is none.
+
+	T take() {
+		long next = head.get();
+		for (int spins = 0; next == cachedTail; spins++) {
+			cachedTail = tail.get();
+			if (next == cachedTail)
+				pause(spins);
+		}
+		return slot(next);
+	}
+
+	// release returns the slot taken to the producer.
+
+	void release() {
+		head.lazySet(head.get() + 1);
+	}
+
+	// isEmpty returns true if the consumer has released every slot.
+
+	boolean isEmpty() {
+		return head.get() == tail.get();
+	}
+
+	// close stops the other side at its next wait.
+
+	void close() {
+		closed = true;
+	}
+
+	// close stops the other side at its next wait, where the failure is
+	//   thrown, wrapped if it is a checked exception.
+
+	void close(Throwable failure) {
+		this.failure = failure;
+		closed = true;
+	}
+
+	// pause waits for the other side, yielding for the first few rounds
+	//   and then parking.
+
+	void pause(int spins) {
+		if (closed) {
+			Throwable cause = failure;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			if (cause instanceof IOException)
+				throw new UncheckedIOException((IOException) cause);
+			throw new CancellationException("pipeline stage stopped");
+		}
+		if (spins < SPINS)
+			Thread.yield();
+		else
+			LockSupport.parkNanos(PARK_NANOS);
+	}
+
+	@SuppressWarnings("unchecked")
+	private T slot(long index) {
+		return (T) slots[(int) index & mask];
+	}
+}
@@ -0,0 +1,219 @@
+// The TokenFile class records the tokens a lexer scans from a source
+//   file in a compact binary file beside it, so that the source can be
+//   formatted again without scanning its characters. Each token is
+//   stored as one byte holding its ordinal and spacing, followed by the
+//   distance from the previous token's offset, its length and the
+//   number of lines since the previous token, as variable-length
+//   integers. The lexeme itself stays in the source. A problem found
+//   while scanning is stored before the token it was found in, as its
+//   line and message. Offsets count characters, decoded with the
+//   default character set. The header holds a hash of the character
+//   set's name, the size of the source and a hash of its bytes, so a
+//   token file is only used while the source has the same contents and
+//   is decoded the same way, whatever its modification time says. The
+//   source is hashed again as it is formatted, and a source that changed
+//   in the meantime is reported rather than formatted from tokens that
+//   do not match it. The file is written through an UpdateStream, so it
+//   is only replaced once the whole source has been scanned; a source
+//   that is abandoned leaves no token file.
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.List;
+
+public final class TokenFile implements Closeable {
+
+	// VERSION must be changed whenever the layout of the file, or the
+	//   tokens the lexer scans, change.
+
+	static final int MAGIC = 0x43544f4b, VERSION = 3;
+	static final int HEADER_SIZE = 44, PREFIX_SIZE = 28, SPACING_SHIFT = 6,
+			KIND_MASK = (1 << SPACING_SHIFT) - 1, DIAGNOSTIC = KIND_MASK,
+			MAXIMUM_MESSAGE = 4096;
+	public static final String SUFFIX = ".tok";
+	private final UpdateStream target;
+	private final DataOutputStream out;
+	private long lastOffset, lastLine = 1;
+	private boolean ended;
+
+	// The constructor starts the token file for a source with the hash.
+
+	TokenFile(Path source, Path tokens, long[] hash) throws IOException {
+		target = new UpdateStream(tokens);
+		out = new DataOutputStream(new BufferedOutputStream(target,
+				64 * 1024));
+		out.write(header(source, hash));
+	}
+
+	// pathFor returns the path of the token file of a source file.
+
+	public static Path pathFor(Path source) {
+		return source.resolveSibling(source.getFileName() + SUFFIX);
+	}
+
+	// isCurrent returns true if the source has a token file that was
+	//   written from its present contents.
+
+	public static boolean isCurrent(Path source) {
+		try {
+			return isCurrent(source, null);
+		} catch (IOException exception) {
+			return false;
+		}
+	}
+
+	// format formats a source file, reading its tokens from its token
+	//   file if that is current, and otherwise scanning the source and
+	//   writing the token file as it goes. The page headings show the
+	//   name. The budget and metrics are those of CFormatter.format.
+
+	public static List<Diagnostic> format(Path source, String name,
+			Writer destination, long stepLimit, long timeLimit,
+			FormatMetrics metrics) throws IOException {
+		Output output = new Output(destination, name);
+		long[] hash = HashingInputStream.hash(Files.newInputStream(source), 0);
+
+		try (HashingInputStream bytes = new HashingInputStream(
+				Files.newInputStream(source), 0);
+				Reader input = new InputStreamReader(bytes)) {
+			if (isCurrent(source, hash))
+				try (TokenReader stored = new TokenReader(pathFor(source),
+						input)) {
+					List<Diagnostic> diagnostics = CFormatter.format(
+							new Lexer(stored, output), output, stepLimit,
+							timeLimit, metrics);
+					checkUnchanged(source, bytes, hash);
+					return diagnostics;
+				}
+			try (TokenFile recording = new TokenFile(source, pathFor(source),
+					hash)) {
+				Lexer lexer = new Lexer(input, output);
+				lexer.setRecording(recording);
+				List<Diagnostic> diagnostics = CFormatter.format(lexer, output,
+						stepLimit, timeLimit, metrics);
+				checkUnchanged(source, bytes, hash);
+				recording.commit();
+				return diagnostics;
+			}
+		} catch (UncheckedIOException exception) {
+			throw exception.getCause();
+		}
+	}
+
+	// token writes a token. Nothing is written after the end of the file.
+
+	void token(Token token, int spacing, long offset, int length, long line)
+			throws IOException {
+		if (ended)
+			return;
+		out.write(token.ordinal() | spacing << SPACING_SHIFT);
+		writeNumber(out, zigzag(offset - lastOffset));
+		writeNumber(out, length);
+		writeNumber(out, zigzag(line - lastLine));
+		lastOffset = offset;
+		lastLine = line;
+		ended = token == Token.END_OF_FILE;
+	}
+
+	// diagnostic writes a problem found while scanning the next token.
+
+	void diagnostic(Diagnostic diagnostic) throws IOException {
+		byte[] message = diagnostic.getMessage()
+				.getBytes(StandardCharsets.UTF_8);
+
+		if (ended)
+			return;
+		out.write(DIAGNOSTIC);
+		writeNumber(out, diagnostic.getLine());
+		writeNumber(out, Math.min(message.length, MAXIMUM_MESSAGE));
+		out.write(message, 0, Math.min(message.length, MAXIMUM_MESSAGE));
+	}
+
+	// commit replaces the token file with the tokens written, if they
+	//   run to the end of the source.
+
+	void commit() throws IOException {
+		if (!ended)
+			throw new IOException("token file is incomplete");
+		out.flush();
+		target.commit();
+	}
+
+	// Closes the file, discarding it if it was not committed.
+
+	@Override
+	public void close() throws IOException {
+		target.close();
+	}
+
+	// isCurrent returns true if the source has a token file whose header
+	//   matches its size and the hash of its bytes. The source is only
+	//   hashed, if the hash is not given, once its size matches.
+
+	private static boolean isCurrent(Path source, long[] hash)
+			throws IOException {
+		byte[] found = new byte[HEADER_SIZE];
+
+		try (InputStream in = Files.newInputStream(pathFor(source))) {
+			new DataInputStream(in).readFully(found);
+		} catch (IOException exception) {
+			return false;
+		}
+		if (!Arrays.equals(Arrays.copyOf(header(source, new long[2]),
+				PREFIX_SIZE), Arrays.copyOf(found, PREFIX_SIZE)))
+			return false;
+		if (hash == null)
+			hash = HashingInputStream.hash(Files.newInputStream(source), 0);
+		return Arrays.equals(header(source, hash), found);
+	}
+
+	// checkUnchanged reads the rest of the source and throws an exception
+	//   if its bytes no longer have the hash taken before formatting.
+
+	private static void checkUnchanged(Path source, HashingInputStream bytes,
+			long[] hash) throws IOException {
+		bytes.skip(Long.MAX_VALUE);
+		if (!Arrays.equals(bytes.hash(), hash))
+			throw new IOException(source + " changed while it was formatted");
+	}
+
+	// header returns the header of the token file of the source, whose
+	//   bytes have the hash, decoded with the default character set.
+
+	private static byte[] header(Path source, long[] hash)
+			throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_SIZE);
+		DataOutputStream header = new DataOutputStream(bytes);
+
+		header.writeInt(MAGIC);
+		header.writeInt(VERSION);
+		header.writeInt(Token.values().length);
+		header.writeLong(FormatCache.hash(Charset.defaultCharset().name()
+				.getBytes(StandardCharsets.UTF_8), 0)[0]);
+		header.writeLong(Files.size(source));
+		header.writeLong(hash[0]);
+		header.writeLong(hash[1]);
+		return bytes.toByteArray();
+	}
+
+	// writeNumber writes a number that is not negative in seven-bit
+	//   groups, lowest first, with the top bit set on all but the last.
+
+	private static void writeNumber(OutputStream out, long number)
+			throws IOException {
+		while ((number & ~0x7fL) != 0) {
+			out.write((int) (number & 0x7f) | 0x80);
+			number >>>= 7;
+		}
+		out.write((int) number);
+	}
+
+	// zigzag maps small negative and positive numbers to small numbers
+	//   that are not negative.
+
+	private static long zigzag(long number) {
+		return number << 1 ^ number >> 63;
+	}
+}
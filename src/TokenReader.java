@@ -0,0 +1,204 @@
+// The TokenReader class reads back the tokens of a TokenFile for a
+//   Lexer, in place of scanning the source. The token file is mapped
+//   into memory, a window at a time, and read in order. The lexemes are
+//   taken from the source, which is read alongside, with its line
+//   endings normalized and a last line ending supplied as the lexer
+//   does; the characters between lexemes are skipped without being
+//   looked at, so comments and whitespace cost only their reading. Only
+//   the current lexeme and the block it is in are held in memory.
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+final class TokenReader implements Closeable {
+	private static final long WINDOW_SIZE = 64L << 20;
+	private static final int RECORD_SIZE = TokenFile.MAXIMUM_MESSAGE + 64,
+			BUFFER_SIZE = 64 * 1024;
+	private static final Token[] TOKENS = Token.values();
+	private final FileChannel channel;
+	private final long size;
+	private MappedByteBuffer bytes;
+	private long windowStart;
+	private final Reader source;
+	private char[] text = new char[BUFFER_SIZE];
+	private long textStart;
+	private int textLimit;
+	private boolean afterReturn, atLineStart = true, sourceEnded;
+	private Token token;
+	private int start, length, spacing;
+	private long offset, line = 1;
+
+	// The constructor maps the token file and checks its header. The
+	//   source is read from its start; it is not closed.
+
+	TokenReader(Path tokens, Reader source) throws IOException {
+		this.source = source;
+		channel = FileChannel.open(tokens, StandardOpenOption.READ);
+		try {
+			size = channel.size();
+			map(0);
+			if (size < TokenFile.HEADER_SIZE ||
+					bytes.getInt() != TokenFile.MAGIC ||
+					bytes.getInt() != TokenFile.VERSION ||
+					bytes.getInt() != TOKENS.length)
+				throw new IOException(tokens + " is not a current token file");
+			bytes.position(TokenFile.HEADER_SIZE);
+		} catch (IOException | RuntimeException exception) {
+			channel.close();
+			throw exception;
+		}
+	}
+
+	// next reads the next token, passing the problems recorded before it
+	//   to the consumer. The end of the file is returned again on every
+	//   later call.
+
+	Token next(Consumer<Diagnostic> diagnostics) throws IOException {
+		if (token == Token.END_OF_FILE) {
+			start = length = 0;
+			return token;
+		}
+		while (true) {
+			if (bytes.remaining() < RECORD_SIZE &&
+					windowStart + bytes.limit() < size)
+				map(windowStart + bytes.position());
+			if (!bytes.hasRemaining())
+				throw new EOFException("token file ends early");
+			int kind = bytes.get() & 0xff;
+			if ((kind & TokenFile.KIND_MASK) == TokenFile.DIAGNOSTIC) {
+				long at = readNumber();
+				byte[] message = new byte[(int) readNumber()];
+				bytes.get(message);
+				diagnostics.accept(new Diagnostic(at,
+						new String(message, StandardCharsets.UTF_8)));
+				continue;
+			}
+			if ((kind & TokenFile.KIND_MASK) >= TOKENS.length)
+				throw new IOException("bad token " + kind + " in token file");
+			token = TOKENS[kind & TokenFile.KIND_MASK];
+			spacing = kind >>> TokenFile.SPACING_SHIFT;
+			offset += unzigzag(readNumber());
+			length = (int) readNumber();
+			line += unzigzag(readNumber());
+			start = lexeme();
+			return token;
+		}
+	}
+
+	// characters returns the buffer that holds the current lexeme, from
+	//   start for length characters.
+
+	char[] characters() {
+		return text;
+	}
+
+	int start() {
+		return start;
+	}
+
+	int length() {
+		return length;
+	}
+
+	int spacing() {
+		return spacing;
+	}
+
+	long offset() {
+		return offset;
+	}
+
+	long line() {
+		return line;
+	}
+
+	// Closes the token file. The mapping itself is released by the
+	//   garbage collector.
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	// lexeme reads the source up to the end of the current lexeme and
+	//   returns where it starts in the buffer. What comes before it is
+	//   discarded.
+
+	private int lexeme() throws IOException {
+		if (offset < textStart)
+			throw new IOException("tokens out of order in token file");
+		while (length > 0 && textStart + textLimit < offset + length) {
+			int keep = (int) Math.min(offset - textStart, textLimit);
+			System.arraycopy(text, keep, text, 0, textLimit - keep);
+			textStart += keep;
+			textLimit -= keep;
+			if (textLimit == text.length)
+				text = Arrays.copyOf(text, text.length * 2);
+			int count = source.read(text, textLimit, text.length - textLimit);
+			if (count < 0) {
+				if (sourceEnded || atLineStart)
+					throw new EOFException(
+							"source is shorter than its token file");
+				text[textLimit++] = '\n';
+				sourceEnded = atLineStart = true;
+				continue;
+			}
+			textLimit = normalizeLineEnds(textLimit, textLimit + count);
+		}
+		return length > 0 ? (int) (offset - textStart) : 0;
+	}
+
+	// normalizeLineEnds replaces "\r\n" and lone '\r' line endings in a
+	//   newly read block with '\n', as the lexer does. Returns the new end
+	//   of the block.
+
+	private int normalizeLineEnds(int start, int end) {
+		int to = start;
+
+		for (int from = start; from < end; from++) {
+			char next = text[from];
+			if (next == '\r') {
+				text[to++] = '\n';
+				afterReturn = true;
+			} else if (next != '\n' || !afterReturn) {
+				text[to++] = next;
+				afterReturn = false;
+			} else
+				afterReturn = false;
+		}
+		if (to > start)
+			atLineStart = text[to - 1] == '\n';
+		return to;
+	}
+
+	// map maps the window of the token file that starts at the offset.
+
+	private void map(long start) throws IOException {
+		windowStart = start;
+		bytes = channel.map(FileChannel.MapMode.READ_ONLY, start,
+				Math.min(WINDOW_SIZE, size - start));
+	}
+
+	private long readNumber() throws IOException {
+		long number = 0;
+
+		for (int shift = 0; shift < 64; shift += 7) {
+			if (!bytes.hasRemaining())
+				throw new EOFException("token file ends early");
+			int next = bytes.get();
+			number |= (long) (next & 0x7f) << shift;
+			if ((next & 0x80) == 0)
+				return number;
+		}
+		throw new IOException("bad number in token file");
+	}
+
+	private static long unzigzag(long number) {
+		return number >>> 1 ^ -(number & 1);
+	}
+}
@@ -0,0 +1,166 @@
+// The UpdateStream class is an output stream that replaces a file only
+//   if the bytes written to it differ from the file's contents. While
+//   they match the file it only compares them, so an unchanged file is
+//   never opened for writing and keeps its modification time. At the
+//   first difference it copies the matching part of the file into a
+//   temporary file in the same directory and carries on writing there.
+//   A target that does not exist differs at the first byte written, or
+//   at commit if nothing is, so a stream that is abandoned before then
+//   leaves no temporary file behind.
+//   commit renames the temporary file over the target in one atomic
+//   step, so readers, and a worker that dies midway, never leave a torn
+//   file; closing without committing discards the temporary file.
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class UpdateStream extends OutputStream {
+	private static final String TEMPORARY_SUFFIX = ".tmp";
+	private final Path target;
+	private final byte[] block = new byte[64 * 1024];
+	private InputStream expected;
+	private int position, count;
+	private boolean missing;
+	private long matched;
+	private Path temporary;
+	private OutputStream out;
+
+	// The constructor opens the target for comparison, if it exists. No
+	//   file is created yet.
+
+	public UpdateStream(Path target) throws IOException {
+		this.target = target;
+		try {
+			expected = Files.newInputStream(target);
+		} catch (NoSuchFileException exception) {
+			missing = true;
+		}
+	}
+
+	@Override
+	public void write(byte[] bytes, int offset, int length)
+			throws IOException {
+		while (out == null && length > 0) {
+			if (missing || position == count && !fill()) {
+				diverge();
+				break;
+			}
+			int run = Math.min(length, count - position), same = 0;
+			while (same < run && bytes[offset + same] == block[position + same])
+				same++;
+			position += same;
+			matched += same;
+			offset += same;
+			length -= same;
+			if (same < run)
+				diverge();
+		}
+		if (length > 0)
+			out.write(bytes, offset, length);
+	}
+
+	@Override
+	public void write(int value) throws IOException {
+		write(new byte[] {(byte) value}, 0, 1);
+	}
+
+	// commit makes the target hold exactly the bytes written, replacing it
+	//   only if they differ, and returns true if it was replaced.
+
+	public boolean commit() throws IOException {
+		if (out == null) {
+			if (!missing && position == count && !fill()) {
+				expected.close();
+				expected = null;
+				return false;
+			}
+			diverge();
+		}
+		out.close();
+		out = null;
+		Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE,
+				StandardCopyOption.REPLACE_EXISTING);
+		temporary = null;
+		return true;
+	}
+
+	// close releases the files, deleting the temporary file if the
+	//   stream was not committed.
+
+	@Override
+	public void close() throws IOException {
+		try {
+			if (expected != null)
+				expected.close();
+			if (out != null)
+				out.close();
+		} finally {
+			expected = null;
+			out = null;
+			if (temporary != null)
+				Files.deleteIfExists(temporary);
+			temporary = null;
+		}
+	}
+
+	// diverge starts the temporary file with the part of the target that
+	//   matched. The target is read again for it, which usually finds it
+	//   in the file system cache.
+
+	private void diverge() throws IOException {
+		if (expected != null)
+			expected.close();
+		expected = null;
+		out = new BufferedOutputStream(createTemporary(), block.length);
+		if (matched > 0)
+			try (InputStream in = Files.newInputStream(target)) {
+				for (long copied = 0; copied < matched; ) {
+					int read = in.read(block, 0,
+							(int) Math.min(block.length, matched - copied));
+					if (read < 0)
+						throw new EOFException(target + " changed while writing");
+					out.write(block, 0, read);
+					copied += read;
+				}
+			}
+	}
+
+	// createTemporary creates a new temporary file beside the target. It
+	//   is created with the default permissions for new files, not the
+	//   private ones of Files.createTempFile, and takes those of the
+	//   target where the file system has POSIX permissions.
+
+	private OutputStream createTemporary() throws IOException {
+		Path directory = target.toAbsolutePath().getParent();
+
+		while (true) {
+			Path candidate = directory.resolve("." + target.getFileName() +
+					"." + Long.toHexString(ThreadLocalRandom.current().nextLong()) +
+					TEMPORARY_SUFFIX);
+			try {
+				OutputStream stream = Files.newOutputStream(candidate,
+						StandardOpenOption.CREATE_NEW);
+				temporary = candidate;
+				try {
+					Files.setPosixFilePermissions(temporary,
+							Files.getPosixFilePermissions(target));
+				} catch (IOException | UnsupportedOperationException exception) {
+					// The target is new, or permissions are not supported.
+				}
+				return stream;
+			} catch (FileAlreadyExistsException exception) {
+				// Try another name.
+			}
+		}
+	}
+
+	// fill reads the next block of the target, returning false at its
+	//   end.
+
+	private boolean fill() throws IOException {
+		position = 0;
+		count = Math.max(expected.read(block), 0);
+		return count > 0;
+	}
+}